@@ -37,6 +37,81 @@ public class KubeResolverOptionsConverter {
             obj.setWebSocketClientOptions(new io.vertx.core.http.WebSocketClientOptions((io.vertx.core.json.JsonObject)member.getValue()));
           }
           break;
+        case "watchMode":
+          if (member.getValue() instanceof String) {
+            obj.setWatchMode(io.vertx.serviceresolver.kube.KubeWatchMode.valueOf((String)member.getValue()));
+          }
+          break;
+        case "endpointsApi":
+          if (member.getValue() instanceof String) {
+            obj.setEndpointsApi(io.vertx.serviceresolver.kube.KubeEndpointsApi.valueOf((String)member.getValue()));
+          }
+          break;
+        case "protobuf":
+          if (member.getValue() instanceof Boolean) {
+            obj.setProtobuf((Boolean)member.getValue());
+          }
+          break;
+        case "listPageSize":
+          if (member.getValue() instanceof Number) {
+            obj.setListPageSize(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "slowStartWindow":
+          if (member.getValue() instanceof Number) {
+            obj.setSlowStartWindow(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "terminatingFallback":
+          if (member.getValue() instanceof Boolean) {
+            obj.setTerminatingFallback((Boolean)member.getValue());
+          }
+          break;
+        case "topologyMode":
+          if (member.getValue() instanceof String) {
+            obj.setTopologyMode(io.vertx.serviceresolver.kube.KubeTopologyMode.valueOf((String)member.getValue()));
+          }
+          break;
+        case "zone":
+          if (member.getValue() instanceof String) {
+            obj.setZone((String)member.getValue());
+          }
+          break;
+        case "minZoneServers":
+          if (member.getValue() instanceof Number) {
+            obj.setMinZoneServers(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "idleTimeout":
+          if (member.getValue() instanceof Number) {
+            obj.setIdleTimeout(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "idleTimeoutUnit":
+          if (member.getValue() instanceof String) {
+            obj.setIdleTimeoutUnit(java.util.concurrent.TimeUnit.valueOf((String)member.getValue()));
+          }
+          break;
+        case "sweepInterval":
+          if (member.getValue() instanceof Number) {
+            obj.setSweepInterval(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "maxEntries":
+          if (member.getValue() instanceof Number) {
+            obj.setMaxEntries(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "snapshotPath":
+          if (member.getValue() instanceof String) {
+            obj.setSnapshotPath((String)member.getValue());
+          }
+          break;
+        case "snapshotInterval":
+          if (member.getValue() instanceof Number) {
+            obj.setSnapshotInterval(((Number)member.getValue()).intValue());
+          }
+          break;
       }
     }
   }
@@ -61,5 +136,32 @@ public class KubeResolverOptionsConverter {
     if (obj.getWebSocketClientOptions() != null) {
       json.put("webSocketClientOptions", obj.getWebSocketClientOptions().toJson());
     }
+    if (obj.getWatchMode() != null) {
+      json.put("watchMode", obj.getWatchMode().name());
+    }
+    if (obj.getEndpointsApi() != null) {
+      json.put("endpointsApi", obj.getEndpointsApi().name());
+    }
+    json.put("protobuf", obj.isProtobuf());
+    json.put("listPageSize", obj.getListPageSize());
+    json.put("slowStartWindow", obj.getSlowStartWindow());
+    json.put("terminatingFallback", obj.isTerminatingFallback());
+    if (obj.getTopologyMode() != null) {
+      json.put("topologyMode", obj.getTopologyMode().name());
+    }
+    if (obj.getZone() != null) {
+      json.put("zone", obj.getZone());
+    }
+    json.put("minZoneServers", obj.getMinZoneServers());
+    json.put("idleTimeout", obj.getIdleTimeout());
+    if (obj.getIdleTimeoutUnit() != null) {
+      json.put("idleTimeoutUnit", obj.getIdleTimeoutUnit().name());
+    }
+    json.put("sweepInterval", obj.getSweepInterval());
+    json.put("maxEntries", obj.getMaxEntries());
+    if (obj.getSnapshotPath() != null) {
+      json.put("snapshotPath", obj.getSnapshotPath());
+    }
+    json.put("snapshotInterval", obj.getSnapshotInterval());
   }
 }
@@ -27,6 +27,66 @@ public class SrvResolverOptionsConverter {
             obj.setMinTTLUnit(java.util.concurrent.TimeUnit.valueOf((String)member.getValue()));
           }
           break;
+        case "maxTTL":
+          if (member.getValue() instanceof Number) {
+            obj.setMaxTTL(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "maxTTLUnit":
+          if (member.getValue() instanceof String) {
+            obj.setMaxTTLUnit(java.util.concurrent.TimeUnit.valueOf((String)member.getValue()));
+          }
+          break;
+        case "ttlJitter":
+          if (member.getValue() instanceof Number) {
+            obj.setTtlJitter(((Number)member.getValue()).doubleValue());
+          }
+          break;
+        case "staleTTL":
+          if (member.getValue() instanceof Number) {
+            obj.setStaleTTL(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "staleTTLUnit":
+          if (member.getValue() instanceof String) {
+            obj.setStaleTTLUnit(java.util.concurrent.TimeUnit.valueOf((String)member.getValue()));
+          }
+          break;
+        case "resolveTargets":
+          if (member.getValue() instanceof Boolean) {
+            obj.setResolveTargets((Boolean)member.getValue());
+          }
+          break;
+        case "idleTimeout":
+          if (member.getValue() instanceof Number) {
+            obj.setIdleTimeout(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "idleTimeoutUnit":
+          if (member.getValue() instanceof String) {
+            obj.setIdleTimeoutUnit(java.util.concurrent.TimeUnit.valueOf((String)member.getValue()));
+          }
+          break;
+        case "sweepInterval":
+          if (member.getValue() instanceof Number) {
+            obj.setSweepInterval(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "maxEntries":
+          if (member.getValue() instanceof Number) {
+            obj.setMaxEntries(((Number)member.getValue()).intValue());
+          }
+          break;
+        case "snapshotPath":
+          if (member.getValue() instanceof String) {
+            obj.setSnapshotPath((String)member.getValue());
+          }
+          break;
+        case "snapshotInterval":
+          if (member.getValue() instanceof Number) {
+            obj.setSnapshotInterval(((Number)member.getValue()).intValue());
+          }
+          break;
       }
     }
   }
@@ -43,5 +103,25 @@ public class SrvResolverOptionsConverter {
     if (obj.getMinTTLUnit() != null) {
       json.put("minTTLUnit", obj.getMinTTLUnit().name());
     }
+    json.put("maxTTL", obj.getMaxTTL());
+    if (obj.getMaxTTLUnit() != null) {
+      json.put("maxTTLUnit", obj.getMaxTTLUnit().name());
+    }
+    json.put("ttlJitter", obj.getTtlJitter());
+    json.put("staleTTL", obj.getStaleTTL());
+    if (obj.getStaleTTLUnit() != null) {
+      json.put("staleTTLUnit", obj.getStaleTTLUnit().name());
+    }
+    json.put("resolveTargets", obj.isResolveTargets());
+    json.put("idleTimeout", obj.getIdleTimeout());
+    if (obj.getIdleTimeoutUnit() != null) {
+      json.put("idleTimeoutUnit", obj.getIdleTimeoutUnit().name());
+    }
+    json.put("sweepInterval", obj.getSweepInterval());
+    json.put("maxEntries", obj.getMaxEntries());
+    if (obj.getSnapshotPath() != null) {
+      json.put("snapshotPath", obj.getSnapshotPath());
+    }
+    json.put("snapshotInterval", obj.getSnapshotInterval());
   }
 }
@@ -14,6 +14,7 @@ import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
+import io.vertx.core.net.Address;
 import io.vertx.core.net.AddressResolver;
 import io.vertx.core.net.SocketAddress;
 import io.vertx.core.net.endpoint.Endpoint;
@@ -22,13 +23,19 @@ import io.vertx.core.net.endpoint.LoadBalancer;
 import io.vertx.docgen.Source;
 import io.vertx.serviceresolver.ServiceAddress;
 import io.vertx.serviceresolver.ServiceResolverClient;
+import io.vertx.serviceresolver.ServiceResolverMetrics;
+import io.vertx.serviceresolver.kube.KubeEndpointsApi;
 import io.vertx.serviceresolver.kube.KubeResolver;
 import io.vertx.serviceresolver.kube.KubeResolverOptions;
+import io.vertx.serviceresolver.kube.KubeTopologyMode;
+import io.vertx.serviceresolver.kube.KubeWatchMode;
 import io.vertx.serviceresolver.kube.KubernetesServiceAddressBuilder;
 import io.vertx.serviceresolver.srv.SrvResolver;
 import io.vertx.serviceresolver.srv.SrvResolverOptions;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Source
 public class ServiceResolverExamples {
@@ -50,6 +57,65 @@ public class ServiceResolverExamples {
     });
   }
 
+  public void serviceResolverClientBatch(ServiceResolverClient client) {
+
+    Future<List<Endpoint>> fut = client.resolveEndpoints(Arrays.asList(
+      ServiceAddress.of("the-service"),
+      ServiceAddress.of("another-service")));
+
+    fut.onSuccess(endpoints -> {
+      for (Endpoint endpoint : endpoints) {
+        System.out.println("Available servers: " + endpoint.servers().size());
+      }
+    });
+  }
+
+  public void serviceResolverClientWarmup(Vertx vertx) {
+
+    ServiceResolverClient client = ServiceResolverClient.create(vertx, new KubeResolverOptions()
+      .addWarmupAddress(ServiceAddress.of("the-service"))
+      .addWarmupAddress(ServiceAddress.of("another-service")));
+
+    client.ready().onSuccess(v -> {
+      System.out.println("Services resolved");
+    });
+  }
+
+  public void serviceResolverClientExpiration(Vertx vertx) {
+
+    ServiceResolverClient client = ServiceResolverClient.create(vertx, new KubeResolverOptions()
+      .setIdleTimeout(5)
+      .setIdleTimeoutUnit(TimeUnit.MINUTES)
+      .setSweepInterval(5_000)
+      .setMaxEntries(10_000));
+  }
+
+  public void serviceResolverSnapshot(Vertx vertx) {
+
+    KubeResolverOptions options = new KubeResolverOptions()
+      .setSnapshotPath("/var/cache/my-app/endpoints.snapshot")
+      .setSnapshotInterval(30_000);
+
+    AddressResolver resolver = KubeResolver.create(options);
+  }
+
+  public void serviceResolverMetrics(Vertx vertx) {
+
+    ServiceResolverMetrics metrics = new ServiceResolverMetrics() {
+      @Override
+      public void resolveCompleted(Address address, long durationNanos, boolean succeeded) {
+        System.out.println("Resolved " + address + " in " + durationNanos / 1_000_000 + "ms");
+      }
+      @Override
+      public void endpointsUpdated(Address address, int count) {
+        System.out.println("Service " + address + " has " + count + " servers");
+      }
+    };
+
+    ServiceResolverClient client = ServiceResolverClient.create(vertx, new KubeResolverOptions()
+      .setMetrics(metrics));
+  }
+
   public void serviceResolverClientLoadBalancing(Vertx vertx) {
 
     ServiceResolverClient client = ServiceResolverClient.create(
@@ -142,6 +208,54 @@ public class ServiceResolverExamples {
       .setWebSocketClientOptions(wsClientOptions);
   }
 
+  public void configuringKubernetesWatchMode(Vertx vertx) {
+
+    KubeResolverOptions options = new KubeResolverOptions()
+      .setWatchMode(KubeWatchMode.SERVICE);
+
+    KubeResolver resolver = KubeResolver.create(options);
+  }
+
+  public void configuringKubernetesEndpointSlices(Vertx vertx) {
+
+    KubeResolverOptions options = new KubeResolverOptions()
+      .setEndpointsApi(KubeEndpointsApi.ENDPOINT_SLICES);
+
+    KubeResolver resolver = KubeResolver.create(options);
+  }
+
+  public void configuringKubernetesSlowStart(Vertx vertx) {
+
+    KubeResolverOptions options = new KubeResolverOptions()
+      .setSlowStartWindow(30_000);
+
+    KubeResolver resolver = KubeResolver.create(options);
+
+    HttpClient client = vertx.httpClientBuilder()
+      .withAddressResolver(resolver)
+      .withLoadBalancer(KubeResolver.SLOW_START_LOAD_BALANCER)
+      .build();
+  }
+
+  public void configuringKubernetesTopology(Vertx vertx) {
+
+    KubeResolverOptions options = new KubeResolverOptions()
+      .setEndpointsApi(KubeEndpointsApi.ENDPOINT_SLICES)
+      .setTopologyMode(KubeTopologyMode.PREFER_ZONE)
+      .setZone(System.getenv("NODE_ZONE"))
+      .setMinZoneServers(2);
+
+    KubeResolver resolver = KubeResolver.create(options);
+  }
+
+  public void configuringKubernetesProtobuf(Vertx vertx) {
+
+    KubeResolverOptions options = new KubeResolverOptions()
+      .setProtobuf(true);
+
+    KubeResolver resolver = KubeResolver.create(options);
+  }
+
   public void servicePortNumberMatching() {
     ServiceAddress serviceAddress = KubernetesServiceAddressBuilder
       .of("the-service")
@@ -156,6 +270,21 @@ public class ServiceResolverExamples {
       .build();
   }
 
+  public void serviceNamespace() {
+    ServiceAddress serviceAddress = KubernetesServiceAddressBuilder
+      .of("the-service")
+      .withNamespace("the-namespace")
+      .build();
+  }
+
+  public void configuringKubernetesClusterWatchMode(Vertx vertx) {
+
+    KubeResolverOptions options = new KubeResolverOptions()
+      .setWatchMode(KubeWatchMode.CLUSTER);
+
+    KubeResolver resolver = KubeResolver.create(options);
+  }
+
   public void configuringSRVResolver(Vertx vertx, String dnsServer, int dnsPort) {
 
     SrvResolverOptions options = new SrvResolverOptions()
@@ -167,4 +296,48 @@ public class ServiceResolverExamples {
       .withAddressResolver(resolver)
       .build();
   }
+
+  public void configuringSRVCaching(Vertx vertx, String dnsServer, int dnsPort) {
+
+    SrvResolverOptions options = new SrvResolverOptions()
+      .setServer(SocketAddress.inetSocketAddress(dnsPort, dnsServer))
+      .setMinTTL(5)
+      .setMaxTTL(5)
+      .setMaxTTLUnit(TimeUnit.MINUTES)
+      .setTtlJitter(0.1);
+
+    AddressResolver resolver = SrvResolver.create(options);
+  }
+
+  public void configuringSRVResolveTargets(Vertx vertx, String dnsServer, int dnsPort) {
+
+    SrvResolverOptions options = new SrvResolverOptions()
+      .setServer(SocketAddress.inetSocketAddress(dnsPort, dnsServer))
+      .setResolveTargets(true);
+
+    AddressResolver resolver = SrvResolver.create(options);
+  }
+
+  public void configuringSRVStaleTTL(Vertx vertx, String dnsServer, int dnsPort) {
+
+    SrvResolverOptions options = new SrvResolverOptions()
+      .setServer(SocketAddress.inetSocketAddress(dnsPort, dnsServer))
+      .setStaleTTL(5)
+      .setStaleTTLUnit(TimeUnit.MINUTES);
+
+    AddressResolver resolver = SrvResolver.create(options);
+  }
+
+  public void configuringSRVLoadBalancer(Vertx vertx, String dnsServer, int dnsPort) {
+
+    SrvResolverOptions options = new SrvResolverOptions()
+      .setServer(SocketAddress.inetSocketAddress(dnsPort, dnsServer));
+
+    AddressResolver resolver = SrvResolver.create(options);
+
+    HttpClient client = vertx.httpClientBuilder()
+      .withAddressResolver(resolver)
+      .withLoadBalancer(SrvResolver.LOAD_BALANCER)
+      .build();
+  }
 }
@@ -20,12 +20,16 @@ import io.vertx.core.net.AddressResolver;
 import io.vertx.core.net.endpoint.Endpoint;
 import io.vertx.core.net.endpoint.EndpointResolver;
 import io.vertx.core.net.endpoint.LoadBalancer;
+import io.vertx.serviceresolver.impl.ExpiringEndpointResolver;
 import io.vertx.serviceresolver.impl.ServiceResolverClientImpl;
 import io.vertx.serviceresolver.kube.KubeResolver;
 import io.vertx.serviceresolver.kube.KubeResolverOptions;
 import io.vertx.serviceresolver.srv.SrvResolver;
 import io.vertx.serviceresolver.srv.SrvResolverOptions;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Address lookup implementing service discovery and load balancing.
  */
@@ -62,14 +66,38 @@ public interface ServiceResolverClient extends EndpointResolver {
       throw new IllegalArgumentException();
     }
     io.vertx.core.spi.endpoint.EndpointResolver<ServiceAddress, ?, ?, ?> resolver = (io.vertx.core.spi.endpoint.EndpointResolver<ServiceAddress, ?, ?, ?>)addressResolver.endpointResolver(vertx);
-    EndpointResolverInternal r = EndpointResolverInternal.create((VertxInternal) vertx, resolver, loadBalancer, 1000);
-    ServiceResolverClientImpl r2 = new ServiceResolverClientImpl(vertx, r);
-    r2.init();
+    long idleTimeout = options.getIdleTimeoutUnit().toMillis(options.getIdleTimeout());
+    ExpiringEndpointResolver<ServiceAddress, ?, ?, ?> expiring = new ExpiringEndpointResolver<>(resolver, idleTimeout, options.getSweepInterval(),
+      options.getMaxEntries(), options.getMetrics() != null ? options.getMetrics() : ServiceResolverMetrics.NOOP);
+    // Idle services are expired by the timing wheel of the expiring resolver
+    EndpointResolverInternal r = EndpointResolverInternal.create((VertxInternal) vertx, expiring, loadBalancer, ServiceResolverClientImpl.NO_EXPIRATION);
+    ServiceResolverClientImpl r2 = new ServiceResolverClientImpl(vertx, r, expiring, options.getSweepInterval());
+    r2.init(options.getWarmupAddresses());
     return r2;
   }
 
   Future<Endpoint> resolveEndpoint(ServiceAddress address);
 
+  /**
+   * Resolve the endpoints of a batch of services at once, the services are resolved concurrently: the SRV resolver
+   * sends the queries without waiting for the responses. The Kubernetes resolver serves the services of a namespace
+   * from a single list and watch with the {@link io.vertx.serviceresolver.kube.KubeWatchMode#NAMESPACE} and
+   * {@link io.vertx.serviceresolver.kube.KubeWatchMode#CLUSTER} modes, with the
+   * {@link io.vertx.serviceresolver.kube.KubeWatchMode#SERVICE} mode each service is still listed and watched on its own.
+   *
+   * @param addresses the service addresses
+   * @return a future notified with the endpoints in the iteration order of the {@code addresses}, failed when any
+   * resolution fails
+   */
+  @GenIgnore
+  Future<List<Endpoint>> resolveEndpoints(Collection<ServiceAddress> addresses);
+
+  /**
+   * @return a future signaling the {@link ServiceResolverOptions#getWarmupAddresses() warmup services} are resolved,
+   * failed when any of them cannot be resolved
+   */
+  Future<Void> ready();
+
   /**
    * Close the client and release the resources.
    *
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver;
+
+import io.vertx.core.net.Address;
+
+/**
+ * Metrics reported by the service resolvers, e.g. to bridge them to Micrometer.
+ *
+ * All the methods do nothing by default, an implementation only overrides the metrics it is interested in. Methods
+ * are called from event loop threads and must not block.
+ */
+public interface ServiceResolverMetrics {
+
+  /**
+   * Metrics doing nothing.
+   */
+  ServiceResolverMetrics NOOP = new ServiceResolverMetrics() {
+  };
+
+  /**
+   * A service resolution completed.
+   *
+   * @param address the service address
+   * @param durationNanos the resolution duration in nanoseconds
+   * @param succeeded whether the resolution succeeded
+   */
+  default void resolveCompleted(Address address, long durationNanos, boolean succeeded) {
+  }
+
+  /**
+   * The service resolver client served an address from its cache.
+   *
+   * @param address the service address
+   */
+  default void cacheHit(Address address) {
+  }
+
+  /**
+   * The service resolver client did not find an address in its cache.
+   *
+   * @param address the service address
+   */
+  default void cacheMiss(Address address) {
+  }
+
+  /**
+   * The servers of a resolved service changed.
+   *
+   * @param address the service address
+   * @param count the number of servers
+   */
+  default void endpointsUpdated(Address address, int count) {
+  }
+
+  /**
+   * The Kubernetes resolver received a list response.
+   *
+   * @param bytes the size of the response
+   */
+  default void listBytesRead(long bytes) {
+  }
+
+  /**
+   * The Kubernetes resolver received a watch event.
+   *
+   * @param bytes the size of the event
+   * @param durationNanos the time spent processing the event in nanoseconds
+   */
+  default void watchEventProcessed(long bytes, long durationNanos) {
+  }
+
+  /**
+   * The Kubernetes resolver reconnects a watch closed by the server.
+   */
+  default void watchReconnected() {
+  }
+
+  /**
+   * A DNS SRV query completed.
+   *
+   * @param name the queried name
+   * @param durationNanos the query duration in nanoseconds
+   * @param succeeded whether the query succeeded
+   */
+  default void srvQueryCompleted(String name, long durationNanos, boolean succeeded) {
+  }
+
+  /**
+   * The SRV resolver received records.
+   *
+   * @param name the queried name
+   * @param count the number of records
+   * @param ttl the smallest TTL of the records in seconds
+   */
+  default void srvRecordsReceived(String name, int count, long ttl) {
+  }
+}
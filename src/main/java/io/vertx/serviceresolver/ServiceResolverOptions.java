@@ -11,10 +11,235 @@
 package io.vertx.serviceresolver;
 
 import io.vertx.codegen.annotations.DataObject;
+import io.vertx.codegen.annotations.GenIgnore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base class for service resolver options.
  */
 @DataObject
 public abstract class ServiceResolverOptions {
+
+  public static final int DEFAULT_IDLE_TIMEOUT = 1;
+  public static final TimeUnit DEFAULT_IDLE_TIMEOUT_UNIT = TimeUnit.SECONDS;
+  public static final int DEFAULT_SWEEP_INTERVAL = 1000;
+  public static final int DEFAULT_MAX_ENTRIES = Integer.MAX_VALUE;
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+
+  private int idleTimeout = DEFAULT_IDLE_TIMEOUT;
+  private TimeUnit idleTimeoutUnit = DEFAULT_IDLE_TIMEOUT_UNIT;
+  private int sweepInterval = DEFAULT_SWEEP_INTERVAL;
+  private int maxEntries = DEFAULT_MAX_ENTRIES;
+  private ServiceResolverMetrics metrics;
+  private List<ServiceAddress> warmupAddresses = new ArrayList<>();
+  private String snapshotPath;
+  private int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+
+  public ServiceResolverOptions() {
+  }
+
+  public ServiceResolverOptions(ServiceResolverOptions other) {
+    this.idleTimeout = other.idleTimeout;
+    this.idleTimeoutUnit = other.idleTimeoutUnit;
+    this.sweepInterval = other.sweepInterval;
+    this.maxEntries = other.maxEntries;
+    this.metrics = other.metrics;
+    this.warmupAddresses = new ArrayList<>(other.warmupAddresses);
+    this.snapshotPath = other.snapshotPath;
+    this.snapshotInterval = other.snapshotInterval;
+  }
+
+  /**
+   * @return the idle timeout of a resolved service
+   */
+  public int getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  /**
+   * Set the time after which a service that has not been accessed by a {@link ServiceResolverClient} is evicted and
+   * its resources (watch, timers) are released, the default value is {@code 1} second.
+   *
+   * @param idleTimeout the idle timeout
+   * @return this options instance
+   */
+  public ServiceResolverOptions setIdleTimeout(int idleTimeout) {
+    if (idleTimeout <= 0) {
+      throw new IllegalArgumentException("Idle timeout (" + idleTimeout + ") must be > 0");
+    }
+    this.idleTimeout = idleTimeout;
+    return this;
+  }
+
+  /**
+   * @return the idle timeout unit
+   */
+  public TimeUnit getIdleTimeoutUnit() {
+    return idleTimeoutUnit;
+  }
+
+  /**
+   * Set the idle timeout unit, the default value is {@link TimeUnit#SECONDS}.
+   *
+   * @param idleTimeoutUnit the idle timeout unit
+   * @return this options instance
+   */
+  public ServiceResolverOptions setIdleTimeoutUnit(TimeUnit idleTimeoutUnit) {
+    this.idleTimeoutUnit = idleTimeoutUnit;
+    return this;
+  }
+
+  /**
+   * @return the sweep interval in milliseconds
+   */
+  public int getSweepInterval() {
+    return sweepInterval;
+  }
+
+  /**
+   * Set the interval in milliseconds at which a {@link ServiceResolverClient} evicts the idle services, the default
+   * value is {@code 1000}.
+   *
+   * Each sweep only visits the services whose idle timeout is due, the interval is the precision of the eviction.
+   *
+   * @param sweepInterval the sweep interval in milliseconds
+   * @return this options instance
+   */
+  public ServiceResolverOptions setSweepInterval(int sweepInterval) {
+    if (sweepInterval <= 0) {
+      throw new IllegalArgumentException("Sweep interval (" + sweepInterval + ") must be > 0");
+    }
+    this.sweepInterval = sweepInterval;
+    return this;
+  }
+
+  /**
+   * @return the maximum number of resolved services
+   */
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Set the maximum number of services a {@link ServiceResolverClient} keeps resolved, the default value is
+   * {@link Integer#MAX_VALUE}.
+   *
+   * When the maximum is exceeded, a service is evicted and its resources (watch, timers) are released. The evicted
+   * service is chosen according to the frequency and the recency of the accesses, so services resolved once do not
+   * evict frequently used services.
+   *
+   * @param maxEntries the maximum number of services
+   * @return this options instance
+   */
+  public ServiceResolverOptions setMaxEntries(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("Max entries (" + maxEntries + ") must be > 0");
+    }
+    this.maxEntries = maxEntries;
+    return this;
+  }
+
+  /**
+   * @return the metrics of the resolver
+   */
+  @GenIgnore
+  public ServiceResolverMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Set the metrics the resolver reports to, the default value is {@code null} (no metrics).
+   *
+   * @param metrics the metrics
+   * @return this options instance
+   */
+  @GenIgnore
+  public ServiceResolverOptions setMetrics(ServiceResolverMetrics metrics) {
+    this.metrics = metrics;
+    return this;
+  }
+
+  /**
+   * @return the addresses of the services resolved when the client is created
+   */
+  @GenIgnore
+  public List<ServiceAddress> getWarmupAddresses() {
+    return warmupAddresses;
+  }
+
+  /**
+   * Set the addresses of the services a {@link ServiceResolverClient} resolves and watches when it is created, the
+   * {@link ServiceResolverClient#ready()} future signals when they are resolved.
+   *
+   * These services are kept resolved for the lifetime of the client: they do not expire when they are idle and they
+   * are not evicted by the maximum number of entries.
+   *
+   * @param warmupAddresses the service addresses
+   * @return this options instance
+   */
+  @GenIgnore
+  public ServiceResolverOptions setWarmupAddresses(List<ServiceAddress> warmupAddresses) {
+    this.warmupAddresses = warmupAddresses != null ? warmupAddresses : new ArrayList<>();
+    return this;
+  }
+
+  /**
+   * Add the address of a service resolved when the client is created, see {@link #setWarmupAddresses(List)}.
+   *
+   * @param warmupAddress the service address
+   * @return this options instance
+   */
+  @GenIgnore
+  public ServiceResolverOptions addWarmupAddress(ServiceAddress warmupAddress) {
+    warmupAddresses.add(warmupAddress);
+    return this;
+  }
+
+  /**
+   * @return the path of the endpoint snapshot file
+   */
+  public String getSnapshotPath() {
+    return snapshotPath;
+  }
+
+  /**
+   * <p>Set the path of a file where the resolver persists the servers of the resolved services, the default value is
+   * {@code null} (no snapshot).</p>
+   *
+   * <p>When the resolver starts, a service found in the snapshot is served from the snapshot right away while it
+   * is resolved in the background, until the discovery service confirms or replaces its servers. Restarted
+   * applications do not need to reach the discovery service before routing requests.</p>
+   *
+   * @param snapshotPath the snapshot file path
+   * @return this options instance
+   */
+  public ServiceResolverOptions setSnapshotPath(String snapshotPath) {
+    this.snapshotPath = snapshotPath;
+    return this;
+  }
+
+  /**
+   * @return the interval in milliseconds at which the endpoint snapshot is written
+   */
+  public int getSnapshotInterval() {
+    return snapshotInterval;
+  }
+
+  /**
+   * Set the interval in milliseconds at which the endpoint snapshot is written when it changed, the default value
+   * is {@code 10000}.
+   *
+   * @param snapshotInterval the snapshot interval in milliseconds
+   * @return this options instance
+   */
+  public ServiceResolverOptions setSnapshotInterval(int snapshotInterval) {
+    if (snapshotInterval <= 0) {
+      throw new IllegalArgumentException("Snapshot interval (" + snapshotInterval + ") must be > 0");
+    }
+    this.snapshotInterval = snapshotInterval;
+    return this;
+  }
 }
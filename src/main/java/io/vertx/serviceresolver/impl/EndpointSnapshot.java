@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A snapshot of the servers of the resolved services, persisted to a file so a resolver can serve services from the
+ * snapshot when it starts, until the discovery service confirms or replaces them.
+ *
+ * The snapshot is written periodically when it changed: it is written to a temporary file first which is then moved
+ * atomically over the snapshot file, so a crash never leaves a partial snapshot. A missing or unreadable snapshot is
+ * ignored. The snapshot is loaded and written on a worker thread, it is written a last time when it is closed.
+ *
+ * The file format is a magic number followed by the number of services and, for each service, its key and its
+ * servers (host, port, priority and weight).
+ */
+public class EndpointSnapshot {
+
+  static final int MAGIC = 0x56535331; // VSS1
+
+  /**
+   * A server of a service.
+   */
+  public static final class Server {
+
+    public final String host;
+    public final int port;
+    public final int priority;
+    public final int weight;
+
+    public Server(String host, int port, int priority, int weight) {
+      this.host = host;
+      this.port = port;
+      this.priority = priority;
+      this.weight = weight;
+    }
+  }
+
+  private final Vertx vertx;
+  private final Path path;
+  private final ConcurrentMap<String, List<Server>> services = new ConcurrentHashMap<>();
+  private volatile boolean dirty;
+  private boolean writing;
+  private boolean closed;
+  private long timerID = -1L;
+  private Future<Void> loaded;
+
+  public EndpointSnapshot(Vertx vertx, String path) {
+    this.vertx = vertx;
+    this.path = Paths.get(path);
+  }
+
+  /**
+   * Create a snapshot when a {@code path} is configured: the snapshot file is loaded asynchronously, see
+   * {@link #loaded()}, and written at the {@code interval}.
+   *
+   * @return the snapshot or {@code null} when no path is configured
+   */
+  public static EndpointSnapshot create(Vertx vertx, String path, long interval) {
+    if (path == null) {
+      return null;
+    }
+    EndpointSnapshot snapshot = new EndpointSnapshot(vertx, path);
+    snapshot.loaded = vertx.executeBlocking(() -> {
+      snapshot.load();
+      return null;
+    }, false);
+    snapshot.start(interval);
+    return snapshot;
+  }
+
+  /**
+   * @return a future completed when the snapshot file is loaded, a missing or unreadable file does not fail it
+   */
+  public Future<Void> loaded() {
+    return loaded;
+  }
+
+  /**
+   * @return the servers of a service or {@code null} when the snapshot has no servers for this service
+   */
+  public List<Server> get(String key) {
+    return services.get(key);
+  }
+
+  /**
+   * Update the servers of a service.
+   */
+  public void put(String key, List<Server> servers) {
+    services.put(key, servers);
+    dirty = true;
+  }
+
+  /**
+   * Load the snapshot file, this method blocks.
+   */
+  void load() {
+    if (!Files.exists(path)) {
+      return;
+    }
+    try {
+      // Services updated in the meantime are more recent than the snapshot
+      decode(Buffer.buffer(Files.readAllBytes(path))).forEach(services::putIfAbsent);
+    } catch (Exception ignore) {
+      // Corrupted or written by another version
+    }
+  }
+
+  private synchronized void start(long interval) {
+    timerID = vertx.setPeriodic(interval, id -> write());
+  }
+
+  private void write() {
+    synchronized (this) {
+      if (!dirty || writing) {
+        return;
+      }
+      dirty = false;
+      writing = true;
+    }
+    Buffer buffer = encode(services);
+    vertx.<Void>executeBlocking(() -> {
+      Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+      Files.write(tmp, buffer.getBytes());
+      Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      return null;
+    }, false).onComplete(ar -> {
+      boolean flush;
+      synchronized (EndpointSnapshot.this) {
+        writing = false;
+        if (ar.failed()) {
+          // Try again at the next period
+          dirty = true;
+        }
+        flush = closed && dirty && ar.succeeded();
+      }
+      if (flush) {
+        // Updated while the last snapshot was written
+        write();
+      }
+    });
+  }
+
+  /**
+   * Stop the periodic writes, the snapshot is written when it changed since the last write.
+   */
+  public void close() {
+    long id;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      id = timerID;
+      timerID = -1L;
+    }
+    if (id >= 0) {
+      vertx.cancelTimer(id);
+    }
+    write();
+  }
+
+  static Buffer encode(Map<String, List<Server>> services) {
+    Buffer buffer = Buffer.buffer();
+    buffer.appendInt(MAGIC);
+    // Concurrent updates might change the number of entries while encoding
+    Map<String, List<Server>> copy = new LinkedHashMap<>(services);
+    buffer.appendInt(copy.size());
+    for (Map.Entry<String, List<Server>> service : copy.entrySet()) {
+      appendString(buffer, service.getKey());
+      List<Server> servers = service.getValue();
+      buffer.appendInt(servers.size());
+      for (Server server : servers) {
+        appendString(buffer, server.host);
+        buffer.appendInt(server.port);
+        buffer.appendInt(server.priority);
+        buffer.appendInt(server.weight);
+      }
+    }
+    return buffer;
+  }
+
+  static Map<String, List<Server>> decode(Buffer buffer) {
+    int[] pos = { 0 };
+    if (readInt(buffer, pos) != MAGIC) {
+      throw new IllegalStateException("Invalid endpoint snapshot");
+    }
+    int size = readInt(buffer, pos);
+    Map<String, List<Server>> services = new LinkedHashMap<>();
+    for (int i = 0;i < size;i++) {
+      String key = readString(buffer, pos);
+      int count = readInt(buffer, pos);
+      List<Server> servers = new ArrayList<>(Math.min(count, 1024));
+      for (int j = 0;j < count;j++) {
+        String host = readString(buffer, pos);
+        int port = readInt(buffer, pos);
+        int priority = readInt(buffer, pos);
+        int weight = readInt(buffer, pos);
+        servers.add(new Server(host, port, priority, weight));
+      }
+      services.put(key, Collections.unmodifiableList(servers));
+    }
+    return services;
+  }
+
+  private static void appendString(Buffer buffer, String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    buffer.appendInt(bytes.length);
+    buffer.appendBytes(bytes);
+  }
+
+  private static int readInt(Buffer buffer, int[] pos) {
+    int value = buffer.getInt(pos[0]);
+    pos[0] += 4;
+    return value;
+  }
+
+  private static String readString(Buffer buffer, int[] pos) {
+    int len = readInt(buffer, pos);
+    String s = buffer.getString(pos[0], pos[0] + len, StandardCharsets.UTF_8.name());
+    pos[0] += len;
+    return s;
+  }
+}
@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.net.Address;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.core.spi.endpoint.EndpointBuilder;
+import io.vertx.core.spi.endpoint.EndpointResolver;
+import io.vertx.serviceresolver.ServiceResolverMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Decorates an endpoint resolver to expire the services that have not been accessed for an idle timeout and to bound
+ * the number of resolved services.
+ *
+ * Resolved services are tracked by a hashed timing wheel, each slot covers a sweep interval. An access only records
+ * its time, the entries of a slot are checked when the wheel reaches the slot: idle entries are invalidated and disposed
+ * and the others are moved to the slot of their new deadline. A sweep therefore only visits the entries that are due,
+ * the endpoint resolver does not need to scan its services to find the idle ones.
+ *
+ * When the number of services is bounded, services are evicted with the W-TinyLFU policy: a new service enters a
+ * small LRU window, the service leaving the window is admitted in the main segmented LRU only when it is accessed more
+ * frequently than the main victim, according to a frequency sketch of the recent accesses. A one-off resolution
+ * of a service name therefore does not evict a popular service. Evicted services are disposed right away.
+ *
+ * Accesses are recorded without locking in a ring buffer, the buffer is drained under the lock to update the frequency
+ * sketch and the LRU queues when the wheel is swept and before a new service is admitted. Accesses recorded when the
+ * buffer is full are dropped, the policy only needs a sample of the accesses.
+ *
+ * Pinned services never expire and are not subject to eviction. A pinned service is also kept resolved when the endpoint
+ * resolver disposes it because it was idle, the next resolution reuses it.
+ */
+public class ExpiringEndpointResolver<A extends Address, S, D, B> implements EndpointResolver<A, S, ExpiringEndpointResolver.Entry<A, D>, B> {
+
+  static final int WHEEL_SIZE = 512;
+  static final int READ_BUFFER_SIZE = 128;
+
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+
+  private final EndpointResolver<A, S, D, B> resolver;
+  private final ServiceResolverMetrics metrics;
+  private final ConcurrentMap<A, Entry<A, D>> entries = new ConcurrentHashMap<>();
+  private final Set<A> pinned = ConcurrentHashMap.newKeySet();
+  private final long idleTimeout;
+  private final long interval;
+  private final long origin;
+  private final Entry<A, D>[] wheel;
+  private long tick;
+
+  // Eviction policy, only when bounded
+  private final int maxEntries;
+  private final FrequencySketch sketch;
+  private final Queue<A, D>[] queues;
+  private final int maxWindow;
+  private final int maxProtected;
+  private final AtomicReferenceArray<Entry<A, D>> reads;
+  private final AtomicLong readsWritten;
+  private volatile long readsDrained;
+  private int evictions;
+
+  @SuppressWarnings("unchecked")
+  public ExpiringEndpointResolver(EndpointResolver<A, S, D, B> resolver, long idleTimeout, long interval, int maxEntries, ServiceResolverMetrics metrics) {
+    this.resolver = resolver;
+    this.metrics = metrics;
+    this.idleTimeout = idleTimeout;
+    this.interval = interval;
+    this.origin = System.currentTimeMillis();
+    this.wheel = new Entry[WHEEL_SIZE];
+    this.maxEntries = maxEntries;
+    if (maxEntries < Integer.MAX_VALUE) {
+      int window = Math.max(1, maxEntries / 100);
+      this.sketch = new FrequencySketch(maxEntries);
+      this.queues = new Queue[] { new Queue<>(), new Queue<>(), new Queue<>() };
+      this.maxWindow = window;
+      this.maxProtected = (maxEntries - window) * 4 / 5;
+      this.reads = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+      this.readsWritten = new AtomicLong();
+    } else {
+      this.sketch = null;
+      this.queues = null;
+      this.maxWindow = 0;
+      this.maxProtected = 0;
+      this.reads = null;
+      this.readsWritten = null;
+    }
+  }
+
+  /**
+   * A resolved service.
+   */
+  public static final class Entry<A, D> {
+
+    final A address;
+    final D state;
+    volatile long lastAccess;
+    volatile boolean expired;
+    private boolean disposed;
+    private long deadline = -1L;
+    private Entry<A, D> prev;
+    private Entry<A, D> next;
+    private int queue = -1;
+    private Entry<A, D> before;
+    private Entry<A, D> after;
+
+    Entry(A address, D state, long now) {
+      this.address = address;
+      this.state = state;
+      this.lastAccess = now;
+    }
+  }
+
+  /**
+   * A LRU queue of entries, from the least recently used to the most recently used.
+   */
+  private static final class Queue<A, D> {
+
+    private Entry<A, D> head;
+    private Entry<A, D> tail;
+    private int size;
+
+    void add(Entry<A, D> entry) {
+      entry.before = tail;
+      entry.after = null;
+      if (tail != null) {
+        tail.after = entry;
+      } else {
+        head = entry;
+      }
+      tail = entry;
+      size++;
+    }
+
+    void remove(Entry<A, D> entry) {
+      if (entry.before != null) {
+        entry.before.after = entry.after;
+      } else {
+        head = entry.after;
+      }
+      if (entry.after != null) {
+        entry.after.before = entry.before;
+      } else {
+        tail = entry.before;
+      }
+      entry.before = null;
+      entry.after = null;
+      size--;
+    }
+  }
+
+  /**
+   * Pin the service of an {@code address}, it will never expire nor be evicted.
+   *
+   * @return whether the address is handled by this resolver
+   */
+  public boolean pin(Address address) {
+    A a = resolver.tryCast(address);
+    if (a == null) {
+      return false;
+    }
+    pinned.add(a);
+    return true;
+  }
+
+  /**
+   * Report whether the service of an {@code address} is cached, the access itself is recorded when the endpoint
+   * resolver obtains the endpoint of the service.
+   */
+  public void touch(Address address) {
+    A a = resolver.tryCast(address);
+    if (a != null) {
+      Entry<A, D> entry = entries.get(a);
+      if (entry != null && !entry.expired) {
+        metrics.cacheHit(a);
+      } else {
+        metrics.cacheMiss(a);
+      }
+    }
+  }
+
+  private void access(Entry<A, D> entry) {
+    entry.lastAccess = System.currentTimeMillis();
+    if (reads != null) {
+      long written = readsWritten.get();
+      if (written - readsDrained < READ_BUFFER_SIZE && readsWritten.compareAndSet(written, written + 1)) {
+        reads.lazySet((int) (written & (READ_BUFFER_SIZE - 1)), entry);
+      }
+    }
+  }
+
+  /**
+   * Apply the accesses recorded in the read buffer to the eviction policy, must be called under the lock.
+   */
+  private void drainReads() {
+    if (reads == null) {
+      return;
+    }
+    long drained = readsDrained;
+    long written = readsWritten.get();
+    for (;drained < written;drained++) {
+      int index = (int) (drained & (READ_BUFFER_SIZE - 1));
+      Entry<A, D> entry = reads.get(index);
+      if (entry == null) {
+        // Not yet published by the recording thread
+        break;
+      }
+      reads.lazySet(index, null);
+      sketch.increment(hash(entry.address));
+      switch (entry.queue) {
+        case WINDOW:
+        case PROTECTED:
+          queues[entry.queue].remove(entry);
+          queues[entry.queue].add(entry);
+          break;
+        case PROBATION:
+          queues[PROBATION].remove(entry);
+          promote(entry);
+          break;
+      }
+    }
+    readsDrained = drained;
+  }
+
+  private void promote(Entry<A, D> entry) {
+    entry.queue = PROTECTED;
+    queues[PROTECTED].add(entry);
+    if (queues[PROTECTED].size > maxProtected) {
+      Entry<A, D> demoted = queues[PROTECTED].head;
+      queues[PROTECTED].remove(demoted);
+      demoted.queue = PROBATION;
+      queues[PROBATION].add(demoted);
+    }
+  }
+
+  /**
+   * Admit a new entry and select the entry to evict when the bound is exceeded.
+   *
+   * @return the evicted entry or {@code null}
+   */
+  private Entry<A, D> admit(Entry<A, D> entry) {
+    sketch.increment(hash(entry.address));
+    entry.queue = WINDOW;
+    queues[WINDOW].add(entry);
+    if (queues[WINDOW].size <= maxWindow) {
+      return null;
+    }
+    Entry<A, D> candidate = queues[WINDOW].head;
+    queues[WINDOW].remove(candidate);
+    candidate.queue = PROBATION;
+    queues[PROBATION].add(candidate);
+    if (queues[WINDOW].size + queues[PROBATION].size + queues[PROTECTED].size <= maxEntries) {
+      return null;
+    }
+    Entry<A, D> victim = queues[PROBATION].head;
+    if (victim == candidate) {
+      victim = queues[PROTECTED].head;
+    }
+    if (victim == null || sketch.frequency(hash(candidate.address)) <= sketch.frequency(hash(victim.address))) {
+      victim = candidate;
+    }
+    return victim;
+  }
+
+  private static int hash(Object address) {
+    int h = address.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Advance the wheel up to {@code now}, the services idle for the timeout are invalidated and disposed.
+   *
+   * @return the number of services invalidated since the last sweep, including evicted services
+   */
+  public int sweep(long now) {
+    List<Entry<A, D>> expired = new ArrayList<>();
+    int count;
+    synchronized (this) {
+      long target = (now - origin) / interval;
+      long ticks = Math.min(target - tick, WHEEL_SIZE);
+      drainReads();
+      count = evictions;
+      evictions = 0;
+      for (long i = 1;i <= ticks;i++) {
+        int slot = (int) ((tick + i) & (WHEEL_SIZE - 1));
+        Entry<A, D> entry = wheel[slot];
+        while (entry != null) {
+          Entry<A, D> next = entry.next;
+          if (entry.deadline <= target) {
+            unlink(entry);
+            long deadline = pinned.contains(entry.address) ? now + idleTimeout : entry.lastAccess + idleTimeout;
+            if (deadline <= now) {
+              entry.expired = true;
+              dequeue(entry);
+              expired.add(entry);
+            } else {
+              link(entry, deadline);
+            }
+          }
+          entry = next;
+        }
+      }
+      tick = Math.max(tick, target);
+    }
+    for (Entry<A, D> entry : expired) {
+      // Like evicted services, disposed right away rather than when the endpoint resolver finds them idle
+      dispose(entry);
+    }
+    return count + expired.size();
+  }
+
+  /**
+   * @return the number of resolved services
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  private void link(Entry<A, D> entry, long deadline) {
+    // Round up to the slot covering the deadline and never schedule in a slot already swept
+    long t = Math.max(tick + 1, (deadline - origin + interval - 1) / interval);
+    int slot = (int) (t & (WHEEL_SIZE - 1));
+    entry.deadline = t;
+    entry.prev = null;
+    entry.next = wheel[slot];
+    if (entry.next != null) {
+      entry.next.prev = entry;
+    }
+    wheel[slot] = entry;
+  }
+
+  private void unlink(Entry<A, D> entry) {
+    if (entry.deadline < 0) {
+      return;
+    }
+    if (entry.prev != null) {
+      entry.prev.next = entry.next;
+    } else {
+      wheel[(int) (entry.deadline & (WHEEL_SIZE - 1))] = entry.next;
+    }
+    if (entry.next != null) {
+      entry.next.prev = entry.prev;
+    }
+    entry.prev = null;
+    entry.next = null;
+    entry.deadline = -1L;
+  }
+
+  private void dequeue(Entry<A, D> entry) {
+    if (entry.queue >= 0) {
+      queues[entry.queue].remove(entry);
+      entry.queue = -1;
+    }
+  }
+
+  @Override
+  public A tryCast(Address address) {
+    return resolver.tryCast(address);
+  }
+
+  @Override
+  public SocketAddress addressOf(S server) {
+    return resolver.addressOf(server);
+  }
+
+  @Override
+  public Future<Entry<A, D>> resolve(A address, EndpointBuilder<B, S> builder) {
+    if (pinned.contains(address)) {
+      Entry<A, D> retained = entries.get(address);
+      if (retained != null && isValid(retained)) {
+        return Future.succeededFuture(retained);
+      }
+    }
+    return resolver.resolve(address, builder).map(state -> {
+      long now = System.currentTimeMillis();
+      Entry<A, D> entry = new Entry<>(address, state, now);
+      Entry<A, D> previous = entries.put(address, entry);
+      Entry<A, D> evicted = null;
+      synchronized (this) {
+        if (previous != null) {
+          // Replaced by the new state, the previous state is disposed by the endpoint resolver
+          unlink(previous);
+          dequeue(previous);
+        }
+        link(entry, now + idleTimeout);
+        if (sketch != null && !pinned.contains(address)) {
+          drainReads();
+          evicted = admit(entry);
+          if (evicted != null) {
+            unlink(evicted);
+            dequeue(evicted);
+            evicted.expired = true;
+            evictions++;
+          }
+        }
+      }
+      if (evicted != null) {
+        entries.remove(evicted.address, evicted);
+        dispose(evicted);
+      }
+      return entry;
+    });
+  }
+
+  @Override
+  public B endpoint(Entry<A, D> entry) {
+    access(entry);
+    return resolver.endpoint(entry.state);
+  }
+
+  @Override
+  public boolean isValid(Entry<A, D> entry) {
+    return !entry.expired && resolver.isValid(entry.state);
+  }
+
+  @Override
+  public void dispose(Entry<A, D> entry) {
+    if (pinned.contains(entry.address) && isValid(entry) && entries.get(entry.address) == entry) {
+      // Expired by the endpoint resolver, retained for the next resolution
+      return;
+    }
+    entries.remove(entry.address, entry);
+    synchronized (this) {
+      unlink(entry);
+      dequeue(entry);
+      if (entry.disposed) {
+        return;
+      }
+      entry.disposed = true;
+    }
+    resolver.dispose(entry.state);
+  }
+
+  @Override
+  public void close() {
+    resolver.close();
+  }
+}
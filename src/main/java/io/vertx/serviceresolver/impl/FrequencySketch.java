@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.impl;
+
+/**
+ * A count-min sketch estimating the access frequency of keys with 4-bit counters (TinyLFU).
+ *
+ * Counters are halved after a sample of accesses ten times the capacity, so the frequencies reflect the recent
+ * history. This class is not thread safe.
+ */
+class FrequencySketch {
+
+  private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAX_TABLE_SIZE = 1 << 24;
+
+  private final long[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(int capacity) {
+    int n = Integer.highestOneBit(Math.max(16, Math.min(MAX_TABLE_SIZE, capacity)) - 1) << 1;
+    this.table = new long[n];
+    this.mask = n - 1;
+    this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * capacity);
+  }
+
+  /**
+   * @return the estimated frequency of the {@code hash}, between {@code 0} and {@code 15}
+   */
+  int frequency(int hash) {
+    int frequency = 15;
+    for (int i = 0;i < 4;i++) {
+      int count = (int) ((table[index(hash, i)] >>> offset(hash, i)) & 0xFL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * Record an access to the {@code hash}.
+   */
+  void increment(int hash) {
+    boolean added = false;
+    for (int i = 0;i < 4;i++) {
+      int index = index(hash, i);
+      int offset = offset(hash, i);
+      if (((table[index] >>> offset) & 0xFL) != 0xFL) {
+        table[index] += 1L << offset;
+        added = true;
+      }
+    }
+    if (added && ++size >= sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0;i < table.length;i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size /= 2;
+  }
+
+  private int index(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return (int) h & mask;
+  }
+
+  private static int offset(int hash, int i) {
+    // One of the 16 counters of the slot
+    return ((hash >>> (i << 3)) & 0xF) << 2;
+  }
+}
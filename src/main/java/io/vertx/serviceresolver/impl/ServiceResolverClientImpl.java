@@ -1,5 +1,6 @@
 package io.vertx.serviceresolver.impl;
 
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.internal.VertxInternal;
@@ -9,45 +10,86 @@ import io.vertx.core.internal.net.endpoint.EndpointResolverInternal;
 import io.vertx.serviceresolver.ServiceAddress;
 import io.vertx.serviceresolver.ServiceResolverClient;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 public class ServiceResolverClientImpl implements ServiceResolverClient {
 
+  /**
+   * The expiration of the endpoint resolver, large enough to never elapse without overflowing the access time.
+   */
+  public static final long NO_EXPIRATION = Long.MAX_VALUE / 2;
+
   private final VertxInternal vertx;
   private final EndpointResolverInternal resolver;
+  private final ExpiringEndpointResolver<?, ?, ?, ?> expiring;
+  private final long sweepInterval;
+  private Future<Void> ready;
   private long timerId;
   private boolean closed;
+  private long invalidated;
 
-  public ServiceResolverClientImpl(Vertx vertx, EndpointResolverInternal resolver) {
+  public ServiceResolverClientImpl(Vertx vertx, EndpointResolverInternal resolver, ExpiringEndpointResolver<?, ?, ?, ?> expiring, long sweepInterval) {
     this.vertx = (VertxInternal) vertx;
     this.resolver = resolver;
+    this.expiring = expiring;
+    this.sweepInterval = sweepInterval;
   }
 
-  public void init() {
+  public void init(List<ServiceAddress> warmupAddresses) {
     checkExpired();
+    for (ServiceAddress address : warmupAddresses) {
+      expiring.pin(address);
+    }
+    ready = resolveEndpoints(warmupAddresses).mapEmpty();
+  }
+
+  @Override
+  public Future<Void> ready() {
+    return ready;
   }
 
   private synchronized void checkExpired() {
     if (closed) {
       return;
     }
-    timerId = vertx.setTimer(1000, id -> {
+    timerId = vertx.setTimer(sweepInterval, id -> {
       synchronized (ServiceResolverClientImpl.this) {
         timerId = -1L;
       }
-      resolver.checkExpired();
+      invalidated += expiring.sweep(System.currentTimeMillis());
+      if (invalidated > 0 && invalidated >= expiring.size()) {
+        // The invalidated services are already disposed, the resolver is only scanned to drop their endpoints once
+        // they outnumber the resolved services so the cost of the scan is amortized over the invalidations
+        invalidated = 0;
+        resolver.checkExpired();
+      }
       checkExpired();
     });
   }
 
   @Override
   public Future<Endpoint> resolveEndpoint(Address address) {
+    expiring.touch(address);
     return resolver.resolveEndpoint(address);
   }
 
   @Override
   public Future<Endpoint> resolveEndpoint(ServiceAddress address) {
+    expiring.touch(address);
     return resolver.resolveEndpoint(address);
   }
 
+  @Override
+  public Future<List<Endpoint>> resolveEndpoints(Collection<ServiceAddress> addresses) {
+    List<Future<Endpoint>> futures = new ArrayList<>(addresses.size());
+    for (ServiceAddress address : addresses) {
+      futures.add(resolveEndpoint(address));
+    }
+    return Future.all(futures).map(CompositeFuture::list);
+  }
+
   @Override
   public Future<Void> close() {
     long id;
@@ -62,6 +104,8 @@ public class ServiceResolverClientImpl implements ServiceResolverClient {
     if (id >= 0) {
       vertx.cancelTimer(id);
     }
+    // Stops the timers of the resolver and flushes its snapshot
+    expiring.close();
     return vertx.getOrCreateContext().succeededFuture();
   }
 }
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube;
+
+import io.vertx.codegen.annotations.VertxGen;
+
+/**
+ * The Kubernetes API the resolver uses to discover the endpoints of a service.
+ */
+@VertxGen
+public enum KubeEndpointsApi {
+
+  /**
+   * The legacy core {@code v1/endpoints} resource, a single resource holds all the addresses of a service.
+   */
+  ENDPOINTS,
+
+  /**
+   * The {@code discovery.k8s.io/v1/endpointslices} resources, the addresses of a service are split across several
+   * slices, so changes are proportional to the modified slice and not to the size of the service.
+   */
+  ENDPOINT_SLICES
+
+}
@@ -11,8 +11,10 @@
 package io.vertx.serviceresolver.kube;
 
 import io.vertx.core.net.AddressResolver;
+import io.vertx.core.net.endpoint.LoadBalancer;
 import io.vertx.serviceresolver.ServiceAddress;
 import io.vertx.serviceresolver.kube.impl.KubeAddressResolver;
+import io.vertx.serviceresolver.kube.impl.SlowStartLoadBalancer;
 
 import java.util.function.Supplier;
 
@@ -21,6 +23,13 @@ import java.util.function.Supplier;
  */
 public interface KubeResolver extends AddressResolver<ServiceAddress> {
 
+  /**
+   * Load balancer ramping up the traffic sent to the servers that recently became ready over the slow start window
+   * of the resolver, see {@link KubeResolverOptions#setSlowStartWindow(int)}. Servers are selected in a round-robin
+   * fashion once they are all warm.
+   */
+  LoadBalancer SLOW_START_LOAD_BALANCER = SlowStartLoadBalancer.INSTANCE;
+
   /**
    * Create a Kubernetes resolver with the default options.
    *
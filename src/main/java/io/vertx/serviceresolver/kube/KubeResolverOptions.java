@@ -11,6 +11,7 @@
 package io.vertx.serviceresolver.kube;
 
 import io.vertx.codegen.annotations.DataObject;
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.json.annotations.JsonGen;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClientOptions;
@@ -18,12 +19,16 @@ import io.vertx.core.http.WebSocketClientOptions;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.PemTrustOptions;
 import io.vertx.core.net.SocketAddress;
+import io.vertx.serviceresolver.ServiceAddress;
+import io.vertx.serviceresolver.ServiceResolverMetrics;
 import io.vertx.serviceresolver.ServiceResolverOptions;
 import io.vertx.serviceresolver.kube.impl.KubeResolverImpl;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static io.vertx.serviceresolver.kube.impl.KubeResolverImpl.*;
@@ -32,7 +37,7 @@ import static io.vertx.serviceresolver.kube.impl.KubeResolverImpl.*;
  *
  */
 @DataObject
-@JsonGen(publicConverter = false)
+@JsonGen(publicConverter = false, inheritConverter = true)
 public class KubeResolverOptions extends ServiceResolverOptions {
 
   public static final SocketAddress DEFAULT_SERVER;
@@ -40,6 +45,14 @@ public class KubeResolverOptions extends ServiceResolverOptions {
   public static final String DEFAULT_NAMESPACE;
   public static final HttpClientOptions DEFAULT_HTTP_CLIENT_OPTIONS;
   public static final WebSocketClientOptions DEFAULT_WEB_SOCKET_OPTIONS;
+  public static final KubeWatchMode DEFAULT_WATCH_MODE = KubeWatchMode.NAMESPACE;
+  public static final KubeEndpointsApi DEFAULT_ENDPOINTS_API = KubeEndpointsApi.ENDPOINTS;
+  public static final boolean DEFAULT_PROTOBUF = false;
+  public static final int DEFAULT_LIST_PAGE_SIZE = 500;
+  public static final int DEFAULT_SLOW_START_WINDOW = 0;
+  public static final boolean DEFAULT_TERMINATING_FALLBACK = false;
+  public static final KubeTopologyMode DEFAULT_TOPOLOGY_MODE = KubeTopologyMode.ANY;
+  public static final int DEFAULT_MIN_ZONE_SERVERS = 1;
 
   static {
     String host = System.getenv(KUBERNETES_SERVICE_HOST);
@@ -80,6 +93,15 @@ public class KubeResolverOptions extends ServiceResolverOptions {
   private String bearerToken;
   private HttpClientOptions httpClientOptions;
   private WebSocketClientOptions webSocketClientOptions;
+  private KubeWatchMode watchMode;
+  private KubeEndpointsApi endpointsApi;
+  private boolean protobuf;
+  private int listPageSize;
+  private int slowStartWindow;
+  private boolean terminatingFallback;
+  private KubeTopologyMode topologyMode;
+  private String zone;
+  private int minZoneServers;
 
   /**
    * Constructor with default options, those might have been set from the pod environment when running in a pod.
@@ -90,18 +112,35 @@ public class KubeResolverOptions extends ServiceResolverOptions {
     bearerToken = DEFAULT_TOKEN;
     httpClientOptions = new HttpClientOptions(DEFAULT_HTTP_CLIENT_OPTIONS);
     webSocketClientOptions = new WebSocketClientOptions(DEFAULT_WEB_SOCKET_OPTIONS);
+    watchMode = DEFAULT_WATCH_MODE;
+    endpointsApi = DEFAULT_ENDPOINTS_API;
+    protobuf = DEFAULT_PROTOBUF;
+    listPageSize = DEFAULT_LIST_PAGE_SIZE;
+    slowStartWindow = DEFAULT_SLOW_START_WINDOW;
+    terminatingFallback = DEFAULT_TERMINATING_FALLBACK;
+    topologyMode = DEFAULT_TOPOLOGY_MODE;
+    minZoneServers = DEFAULT_MIN_ZONE_SERVERS;
   }
 
   /**
    * Default constructor.
    */
   public KubeResolverOptions(KubeResolverOptions other) {
-    this();
+    super(other);
     this.server = other.server;
     this.namespace = other.namespace;
     this.bearerToken = other.bearerToken;
     this.httpClientOptions = other.httpClientOptions != null ? new HttpClientOptions(other.httpClientOptions) : new HttpClientOptions();
     this.webSocketClientOptions = other.webSocketClientOptions != null ? new WebSocketClientOptions(other.webSocketClientOptions) : new WebSocketClientOptions();
+    this.watchMode = other.watchMode;
+    this.endpointsApi = other.endpointsApi;
+    this.protobuf = other.protobuf;
+    this.listPageSize = other.listPageSize;
+    this.slowStartWindow = other.slowStartWindow;
+    this.terminatingFallback = other.terminatingFallback;
+    this.topologyMode = other.topologyMode;
+    this.zone = other.zone;
+    this.minZoneServers = other.minZoneServers;
   }
 
   /**
@@ -130,10 +169,20 @@ public class KubeResolverOptions extends ServiceResolverOptions {
     return this;
   }
 
+  /**
+   * @return the namespace of the resolver
+   */
   public String getNamespace() {
     return namespace;
   }
 
+  /**
+   * Set the namespace of the services resolved, a service address built with
+   * {@link KubernetesServiceAddressBuilder#withNamespace(String)} can resolve a service of another namespace.
+   *
+   * @param namespace the namespace
+   * @return this options instance
+   */
   public KubeResolverOptions setNamespace(String namespace) {
     this.namespace = namespace;
     return this;
@@ -180,4 +229,257 @@ public class KubeResolverOptions extends ServiceResolverOptions {
     this.webSocketClientOptions = webSocketClientOptions;
     return this;
   }
+
+  /**
+   * @return the watch mode
+   */
+  public KubeWatchMode getWatchMode() {
+    return watchMode;
+  }
+
+  /**
+   * <p>Set how the resolver watches the services, the default value is {@link KubeWatchMode#NAMESPACE}.</p>
+   *
+   * <p>When {@link KubeWatchMode#SERVICE} is used, each service is listed and watched with a field selector on its name
+   * so the resolver is not notified of the changes of the other services of the namespace.</p>
+   *
+   * <p>When {@link KubeWatchMode#CLUSTER} is used, a single watch of all the namespaces is shared by all the services,
+   * whatever their namespace.</p>
+   *
+   * @param watchMode the watch mode
+   * @return this options instance
+   */
+  public KubeResolverOptions setWatchMode(KubeWatchMode watchMode) {
+    this.watchMode = watchMode;
+    return this;
+  }
+
+  /**
+   * @return the API used to discover the endpoints of a service
+   */
+  public KubeEndpointsApi getEndpointsApi() {
+    return endpointsApi;
+  }
+
+  /**
+   * <p>Set the API used to discover the endpoints of a service, the default value is {@link KubeEndpointsApi#ENDPOINTS}.</p>
+   *
+   * <p>{@link KubeEndpointsApi#ENDPOINT_SLICES} should be preferred for large services, it requires the
+   * {@code endpointslices} resource of the {@code discovery.k8s.io} API group to be accessible.</p>
+   *
+   * @param endpointsApi the API
+   * @return this options instance
+   */
+  public KubeResolverOptions setEndpointsApi(KubeEndpointsApi endpointsApi) {
+    this.endpointsApi = endpointsApi;
+    return this;
+  }
+
+  /**
+   * @return whether the resolver negotiates the protobuf encoding with the Kubernetes server
+   */
+  public boolean isProtobuf() {
+    return protobuf;
+  }
+
+  /**
+   * <p>Set whether the resolver negotiates the protobuf encoding with the Kubernetes server, the default value is
+   * {@code false}.</p>
+   *
+   * <p>Protobuf payloads are smaller and cheaper to decode than JSON payloads, the resolver falls back to JSON when
+   * the server does not support protobuf.</p>
+   *
+   * @param protobuf whether to use protobuf
+   * @return this options instance
+   */
+  public KubeResolverOptions setProtobuf(boolean protobuf) {
+    this.protobuf = protobuf;
+    return this;
+  }
+
+  /**
+   * @return the maximum number of resources returned by a page of a list request
+   */
+  public int getListPageSize() {
+    return listPageSize;
+  }
+
+  /**
+   * <p>Set the maximum number of resources returned by a page of a list request, the default value is {@code 500}.</p>
+   *
+   * <p>Resources are listed page by page, each page is processed as it arrives which bounds the memory used to list
+   * large namespaces. The value {@code 0} lists all the resources in a single response.</p>
+   *
+   * @param listPageSize the page size
+   * @return this options instance
+   */
+  public KubeResolverOptions setListPageSize(int listPageSize) {
+    if (listPageSize < 0) {
+      throw new IllegalArgumentException("List page size (" + listPageSize + ") must be >= 0");
+    }
+    this.listPageSize = listPageSize;
+    return this;
+  }
+
+  /**
+   * @return the slow start window in milliseconds
+   */
+  public int getSlowStartWindow() {
+    return slowStartWindow;
+  }
+
+  /**
+   * <p>Set the window in milliseconds over which the weight of a server that becomes ready is ramped up, the default
+   * value is {@code 0} (no ramp up).</p>
+   *
+   * <p>A pod that becomes ready after the service was resolved starts with a small weight that grows linearly until
+   * the end of the window, so a pod with a cold JIT does not receive a full share of the traffic right away. The
+   * weight is honoured by the {@link KubeResolver#SLOW_START_LOAD_BALANCER} load balancer.</p>
+   *
+   * @param slowStartWindow the slow start window in milliseconds
+   * @return this options instance
+   */
+  public KubeResolverOptions setSlowStartWindow(int slowStartWindow) {
+    if (slowStartWindow < 0) {
+      throw new IllegalArgumentException("Slow start window (" + slowStartWindow + ") must be >= 0");
+    }
+    this.slowStartWindow = slowStartWindow;
+    return this;
+  }
+
+  /**
+   * @return whether terminating servers are used when a service has no ready server
+   */
+  public boolean isTerminatingFallback() {
+    return terminatingFallback;
+  }
+
+  /**
+   * <p>Set whether the terminating servers that are still serving are used when a service has no ready server, the
+   * default value is {@code false}.</p>
+   *
+   * <p>This is a last resort to keep serving requests during a rollout that terminates all the pods of a service at
+   * once. Terminating servers are only reported by the {@link KubeEndpointsApi#ENDPOINT_SLICES} API.</p>
+   *
+   * @param terminatingFallback whether to fall back to terminating servers
+   * @return this options instance
+   */
+  public KubeResolverOptions setTerminatingFallback(boolean terminatingFallback) {
+    this.terminatingFallback = terminatingFallback;
+    return this;
+  }
+
+  /**
+   * @return the topology mode
+   */
+  public KubeTopologyMode getTopologyMode() {
+    return topologyMode;
+  }
+
+  /**
+   * <p>Set how the resolver takes the zones of the servers into account, the default value is
+   * {@link KubeTopologyMode#ANY}.</p>
+   *
+   * <p>When {@link KubeTopologyMode#PREFER_ZONE} is used, the resolver only uses the servers of its {@link #setZone zone}
+   * as long as the zone has at least {@link #setMinZoneServers min zone servers}, which avoids the cost and the latency
+   * of cross-zone traffic. The zone of a server is only reported by the {@link KubeEndpointsApi#ENDPOINT_SLICES} API.</p>
+   *
+   * @param topologyMode the topology mode
+   * @return this options instance
+   */
+  public KubeResolverOptions setTopologyMode(KubeTopologyMode topologyMode) {
+    this.topologyMode = topologyMode;
+    return this;
+  }
+
+  /**
+   * @return the zone of the resolver
+   */
+  public String getZone() {
+    return zone;
+  }
+
+  /**
+   * <p>Set the zone the resolver runs in, the default value is {@code null}.</p>
+   *
+   * <p>The zone is usually the {@code topology.kubernetes.io/zone} label of the node of the pod, that can be exposed to
+   * the pod through the downward API.</p>
+   *
+   * @param zone the zone
+   * @return this options instance
+   */
+  public KubeResolverOptions setZone(String zone) {
+    this.zone = zone;
+    return this;
+  }
+
+  /**
+   * @return the minimum number of servers of the zone
+   */
+  public int getMinZoneServers() {
+    return minZoneServers;
+  }
+
+  /**
+   * Set the minimum number of servers the zone of the resolver must have to be preferred, otherwise the servers of
+   * all the zones are used, the default value is {@code 1}.
+   *
+   * @param minZoneServers the minimum number of servers
+   * @return this options instance
+   */
+  public KubeResolverOptions setMinZoneServers(int minZoneServers) {
+    if (minZoneServers <= 0) {
+      throw new IllegalArgumentException("Min zone servers (" + minZoneServers + ") must be > 0");
+    }
+    this.minZoneServers = minZoneServers;
+    return this;
+  }
+
+  @Override
+  public KubeResolverOptions setIdleTimeout(int idleTimeout) {
+    return (KubeResolverOptions) super.setIdleTimeout(idleTimeout);
+  }
+
+  @Override
+  public KubeResolverOptions setIdleTimeoutUnit(TimeUnit idleTimeoutUnit) {
+    return (KubeResolverOptions) super.setIdleTimeoutUnit(idleTimeoutUnit);
+  }
+
+  @Override
+  public KubeResolverOptions setSweepInterval(int sweepInterval) {
+    return (KubeResolverOptions) super.setSweepInterval(sweepInterval);
+  }
+
+  @Override
+  public KubeResolverOptions setMaxEntries(int maxEntries) {
+    return (KubeResolverOptions) super.setMaxEntries(maxEntries);
+  }
+
+  @GenIgnore
+  @Override
+  public KubeResolverOptions setMetrics(ServiceResolverMetrics metrics) {
+    return (KubeResolverOptions) super.setMetrics(metrics);
+  }
+
+  @GenIgnore
+  @Override
+  public KubeResolverOptions setWarmupAddresses(List<ServiceAddress> warmupAddresses) {
+    return (KubeResolverOptions) super.setWarmupAddresses(warmupAddresses);
+  }
+
+  @GenIgnore
+  @Override
+  public KubeResolverOptions addWarmupAddress(ServiceAddress warmupAddress) {
+    return (KubeResolverOptions) super.addWarmupAddress(warmupAddress);
+  }
+
+  @Override
+  public KubeResolverOptions setSnapshotPath(String snapshotPath) {
+    return (KubeResolverOptions) super.setSnapshotPath(snapshotPath);
+  }
+
+  @Override
+  public KubeResolverOptions setSnapshotInterval(int snapshotInterval) {
+    return (KubeResolverOptions) super.setSnapshotInterval(snapshotInterval);
+  }
 }
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube;
+
+import io.vertx.codegen.annotations.VertxGen;
+
+/**
+ * How the Kubernetes resolver takes the topology of the cluster into account when selecting the servers of a service.
+ */
+@VertxGen
+public enum KubeTopologyMode {
+
+  /**
+   * All the servers of a service are used regardless of their zone.
+   */
+  ANY,
+
+  /**
+   * The servers located in the zone of the resolver are preferred, the other servers are used when the zone does not
+   * have enough servers. When all the endpoint slices of a service carry topology hints, the servers hinted for the
+   * zone of the resolver are preferred instead.
+   */
+  PREFER_ZONE
+
+}
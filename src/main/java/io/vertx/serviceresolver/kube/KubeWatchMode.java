@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube;
+
+import io.vertx.codegen.annotations.VertxGen;
+
+/**
+ * How the Kubernetes resolver watches the resources of the services it resolves.
+ */
+@VertxGen
+public enum KubeWatchMode {
+
+  /**
+   * A single watch of the namespace is shared by all the services resolved in this namespace, this is efficient
+   * when many services are resolved.
+   */
+  NAMESPACE,
+
+  /**
+   * Each service is listed and watched on its own, this is efficient when few services of a large namespace are
+   * resolved since the resolver is not notified of the changes of unrelated services.
+   */
+  SERVICE,
+
+  /**
+   * A single watch of all the namespaces of the cluster is shared by all the services resolved, whatever their
+   * namespace. This requires the permission to list and watch the resources in all the namespaces.
+   */
+  CLUSTER
+
+}
@@ -9,7 +9,8 @@ import java.util.Objects;
  * <p>Build a {@link ServiceAddress} for Kubernetes capable of distinguish a service endpoint
  * by their <a href="https://kubernetes.io/docs/reference/generated/kubernetes-api/v1.26/#endpointport-v1-core">port</a>.</p>
  *
- * <p>This is useful when dealing with pods exposing multiple ports.</p>
+ * <p>This is useful when dealing with pods exposing multiple ports or with services of another namespace than the
+ * namespace of the resolver.</p>
  */
 public class KubernetesServiceAddressBuilder {
 
@@ -18,6 +19,7 @@ public class KubernetesServiceAddressBuilder {
   }
 
   private final String name;
+  private String namespace = null;
   private int portNumber = 0;
   private String portName = null;
 
@@ -29,7 +31,18 @@ public class KubernetesServiceAddressBuilder {
    * @return the fully build service address
    */
   public ServiceAddress build() {
-    return new KubernetesServiceAddress(name, portNumber, portName);
+    return new KubernetesServiceAddress(name, namespace, portNumber, portName);
+  }
+
+  /**
+   * Specify the {@code namespace} of the service, otherwise the namespace of the resolver is used.
+   *
+   * @param namespace the namespace
+   * @return this builder
+   */
+  public KubernetesServiceAddressBuilder withNamespace(String namespace) {
+    this.namespace = namespace;
+    return this;
   }
 
   /**
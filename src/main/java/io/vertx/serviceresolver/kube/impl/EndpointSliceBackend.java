@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Backend for the {@code discovery.k8s.io/v1/endpointslices} resource, a service owns several slices labelled with
+ * the name of the service.
+ */
+class EndpointSliceBackend extends KubeBackend {
+
+  static final String SERVICE_NAME_LABEL = "kubernetes.io/service-name";
+
+  @Override
+  String path(String namespace) {
+    return namespace != null ? "/apis/discovery.k8s.io/v1/namespaces/" + namespace + "/endpointslices" : "/apis/discovery.k8s.io/v1/endpointslices";
+  }
+
+  @Override
+  String selector(String serviceName) {
+    return "labelSelector=" + encode(SERVICE_NAME_LABEL + "=" + serviceName);
+  }
+
+  @Override
+  void parseField(String field, JsonParser parser, ObjectFields fields) throws IOException {
+    switch (field) {
+      case "endpoints":
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            parseEndpoint(parser, fields);
+          }
+        }
+        break;
+      case "ports":
+        parsePorts(parser, fields.ports);
+        break;
+      default:
+        parser.skipChildren();
+        break;
+    }
+  }
+
+  private static void parseEndpoint(JsonParser parser, ObjectFields fields) throws IOException {
+    String address = null;
+    Boolean ready = null;
+    Boolean serving = null;
+    boolean terminating = false;
+    String nodeName = null;
+    String zone = null;
+    List<String> hints = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken token = parser.nextToken();
+      switch (field) {
+        case "addresses":
+          if (token == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+              // Consumers should use the first address
+              if (address == null) {
+                address = parser.getValueAsString();
+              } else {
+                parser.skipChildren();
+              }
+            }
+          }
+          break;
+        case "conditions":
+          if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+              String condition = parser.currentName();
+              JsonToken value = parser.nextToken();
+              if (value == JsonToken.VALUE_TRUE || value == JsonToken.VALUE_FALSE) {
+                switch (condition) {
+                  case "ready":
+                    ready = value == JsonToken.VALUE_TRUE;
+                    break;
+                  case "serving":
+                    serving = value == JsonToken.VALUE_TRUE;
+                    break;
+                  case "terminating":
+                    terminating = value == JsonToken.VALUE_TRUE;
+                    break;
+                }
+              } else {
+                parser.skipChildren();
+              }
+            }
+          }
+          break;
+        case "nodeName":
+          nodeName = parser.getValueAsString();
+          break;
+        case "zone":
+          zone = parser.getValueAsString();
+          break;
+        case "hints":
+          if (token == JsonToken.START_OBJECT) {
+            hints = parseHints(parser);
+          } else {
+            parser.skipChildren();
+          }
+          break;
+        default:
+          parser.skipChildren();
+          break;
+      }
+    }
+    if (address != null) {
+      fields.endpoints.add(endpoint(address, ready, serving, terminating, nodeName, zone, hints));
+    }
+  }
+
+  /**
+   * Parse the zones of the topology hints, the parser is positioned on the start of the hints object.
+   */
+  private static List<String> parseHints(JsonParser parser) throws IOException {
+    List<String> zones = new ArrayList<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken token = parser.nextToken();
+      if (field.equals("forZones") && token == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String zoneField = parser.currentName();
+            parser.nextToken();
+            if (zoneField.equals("name")) {
+              zones.add(parser.getValueAsString());
+            } else {
+              parser.skipChildren();
+            }
+          }
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return zones;
+  }
+
+  /**
+   * An unknown ready condition should be interpreted as ready, an unknown serving condition as the ready condition.
+   */
+  private static KubeResource.Endpoint endpoint(String address, Boolean ready, Boolean serving, boolean terminating,
+                                                String nodeName, String zone, List<String> hints) {
+    boolean r = ready == null || ready;
+    return new KubeResource.Endpoint(address, r, serving != null ? serving : r, terminating, nodeName, zone, hints);
+  }
+
+  @Override
+  void decodeField(ProtoReader reader, ObjectFields fields) {
+    switch (reader.field()) {
+      case 2:
+        decodeEndpoint(reader.readMessage(), fields);
+        break;
+      case 3:
+        decodePort(reader.readMessage(), 3, fields.ports);
+        break;
+      default:
+        reader.skip();
+        break;
+    }
+  }
+
+  private static void decodeEndpoint(ProtoReader endpoint, ObjectFields fields) {
+    String address = null;
+    Boolean ready = null;
+    Boolean serving = null;
+    boolean terminating = false;
+    String nodeName = null;
+    String zone = null;
+    List<String> hints = null;
+    while (endpoint.next()) {
+      switch (endpoint.field()) {
+        case 1:
+          String s = endpoint.readString();
+          // Consumers should use the first address
+          if (address == null) {
+            address = s;
+          }
+          break;
+        case 2:
+          // EndpointConditions
+          ProtoReader conditions = endpoint.readMessage();
+          while (conditions.next()) {
+            switch (conditions.field()) {
+              case 1:
+                ready = conditions.readBool();
+                break;
+              case 2:
+                serving = conditions.readBool();
+                break;
+              case 3:
+                terminating = conditions.readBool();
+                break;
+              default:
+                conditions.skip();
+                break;
+            }
+          }
+          break;
+        case 6:
+          nodeName = endpoint.readString();
+          break;
+        case 7:
+          zone = endpoint.readString();
+          break;
+        case 8:
+          // EndpointHints
+          hints = new ArrayList<>();
+          ProtoReader endpointHints = endpoint.readMessage();
+          while (endpointHints.next()) {
+            if (endpointHints.field() == 1) {
+              // ForZone
+              ProtoReader forZone = endpointHints.readMessage();
+              while (forZone.next()) {
+                if (forZone.field() == 1) {
+                  hints.add(forZone.readString());
+                } else {
+                  forZone.skip();
+                }
+              }
+            } else {
+              endpointHints.skip();
+            }
+          }
+          break;
+        default:
+          endpoint.skip();
+          break;
+      }
+    }
+    if (address != null) {
+      fields.endpoints.add(endpoint(address, ready, serving, terminating, nodeName, zone, hints));
+    }
+  }
+
+  @Override
+  KubeResource resource(ObjectFields fields) {
+    String serviceName = fields.serviceLabel;
+    if (serviceName == null || fields.name == null) {
+      return null;
+    }
+    List<KubeResource.Endpoint> endpoints = fields.endpoints;
+    List<KubeResource.Port> ports = fields.ports;
+    List<KubeResource.Subset> subsets = endpoints.isEmpty() && ports.isEmpty() ? Collections.emptyList() : Collections.singletonList(new KubeResource.Subset(ports, endpoints));
+    return new KubeResource(fields.name, fields.namespace, serviceName, subsets);
+  }
+}
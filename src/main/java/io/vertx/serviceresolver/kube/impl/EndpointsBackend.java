@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Backend for the core {@code v1/endpoints} resource, the resource has the name of its service.
+ */
+class EndpointsBackend extends KubeBackend {
+
+  @Override
+  String path(String namespace) {
+    return namespace != null ? "/api/v1/namespaces/" + namespace + "/endpoints" : "/api/v1/endpoints";
+  }
+
+  @Override
+  String selector(String serviceName) {
+    return "fieldSelector=" + encode("metadata.name=" + serviceName);
+  }
+
+  @Override
+  void parseField(String field, JsonParser parser, ObjectFields fields) throws IOException {
+    if (!field.equals("subsets") || parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      List<KubeResource.Endpoint> endpoints = new ArrayList<>();
+      List<KubeResource.Port> ports = new ArrayList<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.currentName();
+        parser.nextToken();
+        switch (name) {
+          case "addresses":
+            // Addresses array can be null when service pods are getting ready slowly
+            // and are first added to notReadyAddresses array.
+            parseAddresses(parser, true, endpoints);
+            break;
+          case "notReadyAddresses":
+            parseAddresses(parser, false, endpoints);
+            break;
+          case "ports":
+            parsePorts(parser, ports);
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+      fields.subsets.add(new KubeResource.Subset(ports, endpoints));
+    }
+  }
+
+  private static void parseAddresses(JsonParser parser, boolean ready, List<KubeResource.Endpoint> endpoints) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String ip = null;
+      String nodeName = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String addressField = parser.currentName();
+        parser.nextToken();
+        switch (addressField) {
+          case "ip":
+            ip = parser.getValueAsString();
+            break;
+          case "nodeName":
+            nodeName = parser.getValueAsString();
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+      if (ip != null) {
+        endpoints.add(ready ? KubeResource.Endpoint.ready(ip, nodeName) : KubeResource.Endpoint.notReady(ip, nodeName));
+      }
+    }
+  }
+
+  @Override
+  void decodeField(ProtoReader reader, ObjectFields fields) {
+    if (reader.field() != 2) {
+      reader.skip();
+      return;
+    }
+    // EndpointSubset
+    ProtoReader subset = reader.readMessage();
+    List<KubeResource.Endpoint> endpoints = new ArrayList<>();
+    List<KubeResource.Port> ports = new ArrayList<>();
+    while (subset.next()) {
+      switch (subset.field()) {
+        case 1:
+          // EndpointAddress
+          decodeAddress(subset.readMessage(), true, endpoints);
+          break;
+        case 2:
+          // Not ready EndpointAddress
+          decodeAddress(subset.readMessage(), false, endpoints);
+          break;
+        case 3:
+          decodePort(subset.readMessage(), 2, ports);
+          break;
+        default:
+          subset.skip();
+          break;
+      }
+    }
+    fields.subsets.add(new KubeResource.Subset(ports, endpoints));
+  }
+
+  private static void decodeAddress(ProtoReader address, boolean ready, List<KubeResource.Endpoint> endpoints) {
+    String ip = null;
+    String nodeName = null;
+    while (address.next()) {
+      switch (address.field()) {
+        case 1:
+          ip = address.readString();
+          break;
+        case 4:
+          nodeName = address.readString();
+          break;
+        default:
+          address.skip();
+          break;
+      }
+    }
+    if (ip != null) {
+      endpoints.add(ready ? KubeResource.Endpoint.ready(ip, nodeName) : KubeResource.Endpoint.notReady(ip, nodeName));
+    }
+  }
+
+  @Override
+  KubeResource resource(ObjectFields fields) {
+    if (fields.name == null) {
+      return null;
+    }
+    return new KubeResource(fields.name, fields.namespace, fields.name, fields.subsets.isEmpty() ? Collections.emptyList() : fields.subsets);
+  }
+}
@@ -0,0 +1,484 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.jackson.JacksonCodec;
+import io.vertx.serviceresolver.kube.KubeEndpointsApi;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Kubernetes API the resolver lists and watches to discover the endpoints of a service.
+ *
+ * List responses and watch events are parsed in a streaming fashion from the buffer, only the few fields the
+ * resolver needs are retained, everything else is skipped without being materialized. Both the JSON and the
+ * protobuf encodings are supported.
+ */
+abstract class KubeBackend {
+
+  static final String PROTOBUF = "application/vnd.kubernetes.protobuf";
+
+  static KubeBackend create(KubeEndpointsApi api) {
+    if (api == KubeEndpointsApi.ENDPOINT_SLICES) {
+      return new EndpointSliceBackend();
+    }
+    return new EndpointsBackend();
+  }
+
+  /**
+   * @return the path of the resources in the {@code namespace}, in all the namespaces when {@code namespace} is {@code null}
+   */
+  abstract String path(String namespace);
+
+  /**
+   * @return the query parameter selecting only the resources of the service {@code serviceName}
+   */
+  abstract String selector(String serviceName);
+
+  /**
+   * Parse a field of a resource object other than {@code metadata}, the parser is positioned on the field value
+   * and must be left on the last token of this value.
+   */
+  abstract void parseField(String field, JsonParser parser, ObjectFields fields) throws IOException;
+
+  /**
+   * Create the resource from the parsed fields.
+   *
+   * @return the resource, {@code null} when the resource does not belong to a service
+   */
+  abstract KubeResource resource(ObjectFields fields);
+
+  /**
+   * Decode a protobuf field of a resource object other than {@code metadata}, the field value must be consumed.
+   */
+  abstract void decodeField(ProtoReader reader, ObjectFields fields);
+
+  /**
+   * Read a watch event, the encoding is determined from the content of the {@code buffer}.
+   */
+  WatchEvent event(Buffer buffer) {
+    return isJson(buffer) ? parseEvent(buffer) : decodeEvent(buffer);
+  }
+
+  private static boolean isJson(Buffer buffer) {
+    for (int i = 0;i < buffer.length();i++) {
+      byte b = buffer.getByte(i);
+      if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+        return b == '{';
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parse a list response.
+   */
+  ResourceList parseList(Buffer buffer) {
+    try (JsonParser parser = JacksonCodec.createParser(buffer)) {
+      expect(parser, JsonToken.START_OBJECT);
+      String resourceVersion = null;
+      String continueToken = null;
+      List<KubeResource> items = new ArrayList<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken token = parser.nextToken();
+        switch (field) {
+          case "metadata":
+            if (token == JsonToken.START_OBJECT) {
+              while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                  case "resourceVersion":
+                    resourceVersion = parser.getValueAsString();
+                    break;
+                  case "continue":
+                    continueToken = parser.getValueAsString();
+                    break;
+                  default:
+                    parser.skipChildren();
+                    break;
+                }
+              }
+            }
+            break;
+          case "items":
+            if (token == JsonToken.START_ARRAY) {
+              while (parser.nextToken() == JsonToken.START_OBJECT) {
+                KubeResource resource = resource(parseObject(parser));
+                if (resource != null) {
+                  items.add(resource);
+                }
+              }
+            }
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+      return new ResourceList(resourceVersion, continueToken, items);
+    } catch (IOException e) {
+      throw new DecodeException("Failed to decode: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Parse a watch event.
+   */
+  WatchEvent parseEvent(Buffer buffer) {
+    try (JsonParser parser = JacksonCodec.createParser(buffer)) {
+      expect(parser, JsonToken.START_OBJECT);
+      String type = null;
+      ObjectFields object = null;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken token = parser.nextToken();
+        switch (field) {
+          case "type":
+            type = parser.getValueAsString();
+            break;
+          case "object":
+            if (token == JsonToken.START_OBJECT) {
+              object = parseObject(parser);
+            }
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+      if (object == null) {
+        object = new ObjectFields();
+      }
+      return new WatchEvent(type, object.resourceVersion, object.code, resource(object));
+    } catch (IOException e) {
+      throw new DecodeException("Failed to decode: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Parse a resource object, the parser is positioned on the start of the object.
+   */
+  private ObjectFields parseObject(JsonParser parser) throws IOException {
+    ObjectFields fields = new ObjectFields();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken token = parser.nextToken();
+      switch (field) {
+        case "metadata":
+          if (token == JsonToken.START_OBJECT) {
+            parseMetadata(parser, fields);
+          }
+          break;
+        case "code":
+          // The code of a Status object reported by an error event
+          if (token == JsonToken.VALUE_NUMBER_INT) {
+            fields.code = parser.getIntValue();
+          }
+          break;
+        default:
+          parseField(field, parser, fields);
+          break;
+      }
+    }
+    return fields;
+  }
+
+  private static void parseMetadata(JsonParser parser, ObjectFields fields) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken token = parser.nextToken();
+      switch (field) {
+        case "name":
+          fields.name = parser.getValueAsString();
+          break;
+        case "namespace":
+          fields.namespace = parser.getValueAsString();
+          break;
+        case "resourceVersion":
+          fields.resourceVersion = parser.getValueAsString();
+          break;
+        case "labels":
+          if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+              String label = parser.currentName();
+              parser.nextToken();
+              if (label.equals(EndpointSliceBackend.SERVICE_NAME_LABEL)) {
+                fields.serviceLabel = parser.getValueAsString();
+              }
+            }
+          }
+          break;
+        default:
+          parser.skipChildren();
+          break;
+      }
+    }
+  }
+
+  /**
+   * Parse an array of service ports, the parser is positioned on the array value.
+   */
+  static void parsePorts(JsonParser parser, List<KubeResource.Port> ports) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      parser.skipChildren();
+      return;
+    }
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String name = null;
+      int port = -1;
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken token = parser.nextToken();
+        switch (field) {
+          case "name":
+            name = parser.getValueAsString();
+            break;
+          case "port":
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+              port = parser.getIntValue();
+            }
+            break;
+          default:
+            parser.skipChildren();
+            break;
+        }
+      }
+      if (port >= 0) {
+        ports.add(new KubeResource.Port(name, port));
+      }
+    }
+  }
+
+  /**
+   * Decode a protobuf list response.
+   */
+  ResourceList decodeList(Buffer buffer) {
+    ProtoReader list = ProtoReader.object(buffer, 0, buffer.length());
+    String resourceVersion = null;
+    String continueToken = null;
+    List<KubeResource> items = new ArrayList<>();
+    while (list.next()) {
+      switch (list.field()) {
+        case 1:
+          // ListMeta
+          ProtoReader metadata = list.readMessage();
+          while (metadata.next()) {
+            switch (metadata.field()) {
+              case 2:
+                resourceVersion = metadata.readString();
+                break;
+              case 3:
+                continueToken = metadata.readString();
+                break;
+              default:
+                metadata.skip();
+                break;
+            }
+          }
+          break;
+        case 2:
+          KubeResource resource = resource(decodeObject(list.readMessage()));
+          if (resource != null) {
+            items.add(resource);
+          }
+          break;
+        default:
+          list.skip();
+          break;
+      }
+    }
+    return new ResourceList(resourceVersion, continueToken, items);
+  }
+
+  /**
+   * Decode a protobuf watch event.
+   */
+  WatchEvent decodeEvent(Buffer buffer) {
+    int start = 0;
+    int end = buffer.length();
+    if (!ProtoReader.isEnveloped(buffer, start, end) && end >= 4 && buffer.getInt(0) == end - 4) {
+      // Length prefixed frame
+      start = 4;
+    }
+    ProtoReader event = ProtoReader.object(buffer, start, end);
+    String type = null;
+    ProtoReader object = null;
+    while (event.next()) {
+      switch (event.field()) {
+        case 1:
+          type = event.readString();
+          break;
+        case 2:
+          // RawExtension
+          ProtoReader raw = event.readMessage();
+          while (raw.next()) {
+            if (raw.field() == 1) {
+              object = raw.readObject();
+            } else {
+              raw.skip();
+            }
+          }
+          break;
+        default:
+          event.skip();
+          break;
+      }
+    }
+    if ("ERROR".equals(type)) {
+      // Status
+      int code = 0;
+      if (object != null) {
+        while (object.next()) {
+          if (object.field() == 6) {
+            code = object.readInt();
+          } else {
+            object.skip();
+          }
+        }
+      }
+      return new WatchEvent(type, null, code, null);
+    }
+    ObjectFields fields = object != null ? decodeObject(object) : new ObjectFields();
+    return new WatchEvent(type, fields.resourceVersion, 0, resource(fields));
+  }
+
+  private ObjectFields decodeObject(ProtoReader reader) {
+    ObjectFields fields = new ObjectFields();
+    while (reader.next()) {
+      if (reader.field() == 1) {
+        decodeMetadata(reader.readMessage(), fields);
+      } else {
+        decodeField(reader, fields);
+      }
+    }
+    return fields;
+  }
+
+  private static void decodeMetadata(ProtoReader metadata, ObjectFields fields) {
+    while (metadata.next()) {
+      switch (metadata.field()) {
+        case 1:
+          fields.name = metadata.readString();
+          break;
+        case 3:
+          fields.namespace = metadata.readString();
+          break;
+        case 6:
+          fields.resourceVersion = metadata.readString();
+          break;
+        case 11:
+          // map<string, string> labels
+          ProtoReader entry = metadata.readMessage();
+          String key = null;
+          String value = null;
+          while (entry.next()) {
+            if (entry.field() == 1) {
+              key = entry.readString();
+            } else if (entry.field() == 2) {
+              value = entry.readString();
+            } else {
+              entry.skip();
+            }
+          }
+          if (EndpointSliceBackend.SERVICE_NAME_LABEL.equals(key)) {
+            fields.serviceLabel = value;
+          }
+          break;
+        default:
+          metadata.skip();
+          break;
+      }
+    }
+  }
+
+  /**
+   * Decode a protobuf service port, the port number is the {@code portField} field of the message.
+   */
+  static void decodePort(ProtoReader port, int portField, List<KubeResource.Port> ports) {
+    String name = null;
+    int number = -1;
+    while (port.next()) {
+      if (port.field() == 1) {
+        name = port.readString();
+      } else if (port.field() == portField) {
+        number = port.readInt();
+      } else {
+        port.skip();
+      }
+    }
+    if (number >= 0) {
+      ports.add(new KubeResource.Port(name, number));
+    }
+  }
+
+  private static void expect(JsonParser parser, JsonToken expected) throws IOException {
+    JsonToken token = parser.nextToken();
+    if (token != expected) {
+      throw new DecodeException("Unexpected token " + token + ", expected " + expected);
+    }
+  }
+
+  static String encode(String s) {
+    return URLEncoder.encode(s, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The fields of a resource object retained while parsing.
+   */
+  static class ObjectFields {
+    String name;
+    String namespace;
+    String resourceVersion;
+    String serviceLabel;
+    int code;
+    final List<KubeResource.Subset> subsets = new ArrayList<>();
+    final List<KubeResource.Endpoint> endpoints = new ArrayList<>();
+    final List<KubeResource.Port> ports = new ArrayList<>();
+  }
+
+  static class ResourceList {
+
+    final String resourceVersion;
+    final String continueToken;
+    final List<KubeResource> items;
+
+    ResourceList(String resourceVersion, String continueToken, List<KubeResource> items) {
+      this.resourceVersion = resourceVersion;
+      this.continueToken = continueToken != null && !continueToken.isEmpty() ? continueToken : null;
+      this.items = items;
+    }
+  }
+
+  static class WatchEvent {
+
+    final String type;
+    final String resourceVersion;
+    final int code;
+    final KubeResource resource;
+
+    WatchEvent(String type, String resourceVersion, int code, KubeResource resource) {
+      this.type = type;
+      this.resourceVersion = resourceVersion;
+      this.code = code;
+      this.resource = resource;
+    }
+  }
+}
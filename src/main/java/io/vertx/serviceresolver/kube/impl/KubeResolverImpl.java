@@ -11,25 +11,31 @@
 package io.vertx.serviceresolver.kube.impl;
 
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxException;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
-import io.vertx.core.json.JsonArray;
-import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.Address;
 import io.vertx.core.net.SocketAddress;
 import io.vertx.core.spi.endpoint.EndpointBuilder;
 import io.vertx.core.spi.endpoint.EndpointResolver;
 import io.vertx.serviceresolver.ServiceAddress;
+import io.vertx.serviceresolver.ServiceResolverMetrics;
+import io.vertx.serviceresolver.impl.EndpointSnapshot;
 import io.vertx.serviceresolver.kube.KubeResolverOptions;
+import io.vertx.serviceresolver.kube.KubeWatchMode;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
-public class KubeResolverImpl<B> implements EndpointResolver<ServiceAddress, SocketAddress, KubeServiceState<B>, B> {
+public class KubeResolverImpl<B> implements EndpointResolver<ServiceAddress, KubeServer, KubeServiceState<B>, B> {
 
   public static final String KUBERNETES_SERVICE_HOST = "KUBERNETES_SERVICE_HOST";
   public static final String KUBERNETES_SERVICE_PORT = "KUBERNETES_SERVICE_PORT";
@@ -37,6 +43,11 @@ public class KubeResolverImpl<B> implements EndpointResolver<ServiceAddress, Soc
   public static final String KUBERNETES_SERVICE_ACCOUNT_CA = "/var/run/secrets/kubernetes.io/serviceaccount/ca.crt";
   public static final String KUBERNETES_SERVICE_ACCOUNT_NAMESPACE = "/var/run/secrets/kubernetes.io/serviceaccount/namespace";
 
+  /**
+   * Prefer protobuf and fall back to JSON when the server does not support it.
+   */
+  static final String ACCEPT_PROTOBUF = KubeBackend.PROTOBUF + ", application/json";
+
   public static Optional<String> defaultToken() {
     File tokenFile = new File(KUBERNETES_SERVICE_ACCOUNT_TOKEN);
     if (tokenFile.exists()) {
@@ -56,7 +67,17 @@ public class KubeResolverImpl<B> implements EndpointResolver<ServiceAddress, Soc
   WebSocketClient wsClient;
   HttpClient httpClient;
   final String namespace;
-  private String cachedToken;
+  final KubeWatchMode watchMode;
+  final KubeBackend backend;
+  final boolean protobuf;
+  final int listPageSize;
+  final ServiceResolverMetrics metrics;
+  final EndpointSnapshot snapshot;
+  final long slowStart;
+  final boolean terminatingFallback;
+  final KubeTopology topology;
+  private final ConcurrentMap<String, KubeWatch<B>> watches = new ConcurrentHashMap<>();
+  private final KubeTokenHolder tokens;
 
   public KubeResolverImpl(Vertx vertx, Supplier<String> tokenProvider, KubeResolverOptions options) {
 
@@ -70,6 +91,45 @@ public class KubeResolverImpl<B> implements EndpointResolver<ServiceAddress, Soc
     this.namespace = options.getNamespace();
     this.server = options.getServer();
     this.tokenProvider = tokenProvider;
+    this.tokens = new KubeTokenHolder(vertx, tokenProvider);
+    this.watchMode = options.getWatchMode() == null ? KubeWatchMode.NAMESPACE : options.getWatchMode();
+    this.backend = KubeBackend.create(options.getEndpointsApi());
+    this.protobuf = options.isProtobuf();
+    this.listPageSize = options.getListPageSize();
+    this.metrics = options.getMetrics() != null ? options.getMetrics() : ServiceResolverMetrics.NOOP;
+    this.snapshot = EndpointSnapshot.create(vertx, options.getSnapshotPath(), options.getSnapshotInterval());
+    this.slowStart = TimeUnit.MILLISECONDS.toNanos(options.getSlowStartWindow());
+    this.terminatingFallback = options.isTerminatingFallback();
+    this.topology = KubeTopology.create(options.getTopologyMode(), options.getZone(), options.getMinZoneServers());
+  }
+
+  /**
+   * @return the namespace of a service, the namespace of the resolver unless the address specifies one
+   */
+  String namespace(ServiceAddress address) {
+    if (address instanceof KubernetesServiceAddress) {
+      String namespace = ((KubernetesServiceAddress) address).namespace;
+      if (namespace != null) {
+        return namespace;
+      }
+    }
+    return namespace;
+  }
+
+  /**
+   * @return the key of a service in the endpoint snapshot
+   */
+  String snapshotKey(ServiceAddress address) {
+    StringBuilder key = new StringBuilder(namespace(address)).append('/').append(address.name());
+    if (address instanceof KubernetesServiceAddress) {
+      KubernetesServiceAddress kubernetesAddress = (KubernetesServiceAddress) address;
+      if (kubernetesAddress.portName != null) {
+        key.append(':').append(kubernetesAddress.portName);
+      } else if (kubernetesAddress.portNumber > 0) {
+        key.append(':').append(kubernetesAddress.portNumber);
+      }
+    }
+    return key.toString();
   }
 
   @Override
@@ -77,24 +137,15 @@ public class KubeResolverImpl<B> implements EndpointResolver<ServiceAddress, Soc
     return address instanceof ServiceAddress ? (ServiceAddress) address : null;
   }
 
-  private synchronized String token() {
-    String token = cachedToken;
-    if (token == null) {
-      if (tokenProvider != null) {
-        token = tokenProvider.get();
-        if (token != null) {
-          cachedToken = token;
-        }
-      }
-    }
-    return token;
+  Future<String> token() {
+    return tokens.get();
   }
 
-  private synchronized void setToken(String token) {
-    this.cachedToken = token;;
+  void refreshToken(String rejected) {
+    tokens.refresh(rejected);
   }
 
-  private static class EndpoinsRequest<T> {
+  static class EndpoinsRequest<T> {
     final T payload;
     final String token;
     final int retries;
@@ -105,33 +156,76 @@ public class KubeResolverImpl<B> implements EndpointResolver<ServiceAddress, Soc
     }
   }
 
-  Future<EndpoinsRequest<JsonObject>> requestEndpoints(String token, int retries) {
+  /**
+   * Signals the continue token of a paginated list has expired, the list must be restarted.
+   */
+  static final class ListExpiredException extends VertxException {
+    ListExpiredException(String message) {
+      super(message, true);
+    }
+  }
+
+  /**
+   * List a page of resources.
+   *
+   * @param continueToken the token of the page to list, {@code null} for the first page
+   */
+  Future<EndpoinsRequest<KubeBackend.ResourceList>> listEndpoints(String namespace, String selector, String continueToken) {
+    return token().compose(token -> requestEndpoints(namespace, selector, continueToken, token, 0));
+  }
+
+  private Future<EndpoinsRequest<KubeBackend.ResourceList>> requestEndpoints(String namespace, String selector, String continueToken, String token, int retries) {
+    StringBuilder query = new StringBuilder();
+    if (listPageSize > 0) {
+      query.append("&limit=").append(listPageSize);
+    }
+    if (continueToken != null) {
+      query.append("&continue=").append(KubeBackend.encode(continueToken));
+    }
+    if (selector != null) {
+      query.append('&').append(selector);
+    }
+    String requestURI = backend.path(namespace);
+    if (query.length() > 0) {
+      requestURI += "?" + query.substring(1);
+    }
     return httpClient
       .request(new RequestOptions()
         .setMethod(HttpMethod.GET)
         .setServer(server)
-        .setURI("/api/v1/namespaces/" + namespace + "/endpoints"))
+        .setURI(requestURI))
       .compose(req -> {
         if (token != null) {
           req.putHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
         }
+        if (protobuf) {
+          req.putHeader(HttpHeaders.ACCEPT, ACCEPT_PROTOBUF);
+        }
         return req.send().compose(resp -> {
           if (resp.statusCode() == 200) {
-            return resp.body().map(body -> new EndpoinsRequest<>(new JsonObject(body), token, retries));
-          } else if (resp.statusCode() == 401) {
-            // It could be an expired token
-            if (tokenProvider != null && retries < 3) {
-              String freshToken = tokenProvider.get();
-              if (freshToken != null && !freshToken.equals(token)) {
-                return requestEndpoints(freshToken, retries + 1);
+            String contentType = resp.getHeader(HttpHeaders.CONTENT_TYPE);
+            boolean decode = contentType != null && contentType.startsWith(KubeBackend.PROTOBUF);
+            return resp.body().map(body -> {
+              metrics.listBytesRead(body.length());
+              return new EndpoinsRequest<>(decode ? backend.decodeList(body) : backend.parseList(body), token, retries);
+            });
+          } else if (resp.statusCode() == 401 && retries < 3) {
+            // Tokens are refreshed before they expire, yet the token might have been revoked
+            return resp.body().compose(body -> tokens.refresh(token).compose(freshToken -> {
+              if (freshToken != null) {
+                return requestEndpoints(namespace, selector, continueToken, freshToken, retries + 1);
               }
-            }
+              return Future.failedFuture("Invalid status code " + resp.statusCode() + " : " + body);
+            }));
           }
           return resp.body().transform(ar -> {
             StringBuilder msg = new StringBuilder("Invalid status code " + resp.statusCode());
             if (ar.succeeded()) {
               msg.append(" : ").append(ar.result().toString());
             }
+            if (resp.statusCode() == 410 && continueToken != null) {
+              return Future.failedFuture(new ListExpiredException(msg.toString()));
+            }
             return Future.failedFuture(msg.toString());
           });
         });
@@ -139,47 +233,67 @@ public class KubeResolverImpl<B> implements EndpointResolver<ServiceAddress, Soc
   }
 
   @Override
-  public Future<KubeServiceState<B>> resolve(ServiceAddress address, EndpointBuilder<B, SocketAddress> builder) {
-    String token = token();
-    Future<EndpoinsRequest<JsonObject>> endpointsFuture = requestEndpoints(token, 0);
-    return endpointsFuture
-      .compose(endpointsRequest -> {
-        KubeServiceState<B> state = new KubeServiceState<>(builder, address, address.name());
-        JsonObject response = endpointsRequest.payload;
-        String resourceVersion = response.getJsonObject("metadata").getString("resourceVersion");
-        JsonArray items = response.getJsonArray("items");
-        for (int i = 0; i < items.size(); i++) {
-          JsonObject item = items.getJsonObject(i);
-          state.updateEndpoints(item);
-        }
-        if (endpointsRequest.token != null && !endpointsRequest.token.equals(token)) {
-          setToken(endpointsRequest.token);
-        }
-        return connectWebSocket(state, resourceVersion, endpointsRequest.token).map(state);
-      });
+  public Future<KubeServiceState<B>> resolve(ServiceAddress address, EndpointBuilder<B, KubeServer> builder) {
+    if (snapshot != null && !snapshot.loaded().isComplete()) {
+      return snapshot.loaded().compose(v -> resolve(address, builder));
+    }
+    String namespace = namespace(address);
+    String key;
+    switch (watchMode) {
+      case SERVICE:
+        key = namespace + "/" + address.name();
+        break;
+      case CLUSTER:
+        // A single watch of all the namespaces
+        key = "";
+        break;
+      default:
+        key = namespace;
+        break;
+    }
+    KubeWatch<B> watch = watches.computeIfAbsent(key, k -> {
+      switch (watchMode) {
+        case SERVICE:
+          return new KubeWatch<>(this, k, namespace, backend.selector(address.name()));
+        case CLUSTER:
+          return new KubeWatch<>(this, k, null, null);
+        default:
+          return new KubeWatch<>(this, k, namespace, null);
+      }
+    });
+    long start = System.nanoTime();
+    return watch
+      .resolve(address, builder)
+      .andThen(ar -> metrics.resolveCompleted(address, System.nanoTime() - start, ar.succeeded()));
+  }
+
+  void removeWatch(KubeWatch<B> watch) {
+    watches.remove(watch.key, watch);
   }
 
-  private Future<WebSocket> connectWebSocket(KubeServiceState<B> state, String resourceVersion, String token) {
-    String requestURI = "/api/v1/namespaces/" + namespace + "/endpoints?"
+  Future<WebSocket> connectWebSocket(String namespace, String selector, String resourceVersion, String token, Handler<Buffer> handler, Handler<Void> closeHandler) {
+    String requestURI = backend.path(namespace) + "?"
       + "watch=true"
       + "&"
       + "allowWatchBookmarks=true"
       + "&"
       + "resourceVersion=" + resourceVersion;
+    if (selector != null) {
+      requestURI += "&" + selector;
+    }
     WebSocketConnectOptions connectOptions = new WebSocketConnectOptions();
     connectOptions.setServer(server);
     connectOptions.setURI(requestURI);
     if (token != null) {
       connectOptions.putHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
     }
+    if (protobuf) {
+      connectOptions.putHeader(HttpHeaders.ACCEPT, ACCEPT_PROTOBUF);
+    }
     return wsClient.webSocket()
-      .handler(buff -> {
-        JsonObject update  = buff.toJsonObject();
-        state.handleUpdate(update);
-      })
-      .closeHandler(v -> {
-        state.valid = false;
-      }).connect(connectOptions);
+      .handler(handler)
+      .closeHandler(closeHandler)
+      .connect(connectOptions);
   }
 
   @Override
@@ -189,21 +303,24 @@ public class KubeResolverImpl<B> implements EndpointResolver<ServiceAddress, Soc
 
   @Override
   public void close() {
+    watches.values().forEach(KubeWatch::close);
+    tokens.close();
+    if (snapshot != null) {
+      snapshot.close();
+    }
     httpClient.close();
     wsClient.close();
   }
 
   @Override
-  public SocketAddress addressOf(SocketAddress endpoint) {
-    return endpoint;
+  public SocketAddress addressOf(KubeServer server) {
+    return server.address;
   }
 
   @Override
   public void dispose(KubeServiceState<B> unused) {
     unused.disposed = true;
-    if (unused.webSocket != null) {
-      unused.webSocket.close();
-    }
+    unused.watch.unregister(unused);
   }
 
   @Override
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import java.util.List;
+
+/**
+ * An {@code Endpoints} or {@code EndpointSlice} resource reduced to what the resolver needs.
+ */
+class KubeResource {
+
+  final String name;
+  final String namespace;
+  final String serviceName;
+  final List<Subset> subsets;
+
+  KubeResource(String name, String namespace, String serviceName, List<Subset> subsets) {
+    this.name = name;
+    this.namespace = namespace;
+    this.serviceName = serviceName;
+    this.subsets = subsets;
+  }
+
+  /**
+   * A set of addresses sharing the same ports.
+   */
+  static class Subset {
+
+    final List<Port> ports;
+    final List<Endpoint> endpoints;
+
+    Subset(List<Port> ports, List<Endpoint> endpoints) {
+      this.ports = ports;
+      this.endpoints = endpoints;
+    }
+  }
+
+  /**
+   * The address of a pod, its conditions and its topology. {@code Endpoints} resources only tell whether the address
+   * is ready and its node.
+   */
+  static class Endpoint {
+
+    final String ip;
+    final boolean ready;
+    final boolean serving;
+    final boolean terminating;
+    final String nodeName;
+    final String zone;
+    final List<String> hints;
+
+    /**
+     * @param hints the zones this endpoint should serve, {@code null} when the endpoint has no hints
+     */
+    Endpoint(String ip, boolean ready, boolean serving, boolean terminating, String nodeName, String zone, List<String> hints) {
+      this.ip = ip;
+      this.ready = ready;
+      this.serving = serving;
+      this.terminating = terminating;
+      this.nodeName = nodeName;
+      this.zone = zone;
+      this.hints = hints;
+    }
+
+    static Endpoint ready(String ip, String nodeName) {
+      return new Endpoint(ip, true, true, false, nodeName, null, null);
+    }
+
+    static Endpoint notReady(String ip, String nodeName) {
+      return new Endpoint(ip, false, false, false, nodeName, null, null);
+    }
+  }
+
+  static class Port {
+
+    final String name;
+    final int port;
+
+    Port(String name, int port) {
+      this.name = name;
+      this.port = port;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import io.vertx.core.net.SocketAddress;
+
+import java.util.List;
+
+/**
+ * A server of a Kubernetes service.
+ *
+ * A server that became ready after the service was resolved is ramped up: its {@link #weight()} grows linearly
+ * from {@link #MIN_WEIGHT} to {@code 1} over the slow start window, so a load balancer can warm the pod up before
+ * giving it a full share of the traffic.
+ *
+ * The server also carries its topology: the node and the zone of its pod.
+ */
+public final class KubeServer {
+
+  /**
+   * The weight of a server that just became ready.
+   */
+  public static final double MIN_WEIGHT = 0.1D;
+
+  final SocketAddress address;
+  final boolean ready;
+  final long readyTime;
+  final long slowStart;
+  final String nodeName;
+  final String zone;
+  final List<String> hints;
+
+  /**
+   * @param address the server address
+   * @param ready whether the server is ready, otherwise it is a terminating server still serving
+   * @param readyTime the {@link System#nanoTime()} at which the server became ready
+   * @param slowStart the slow start window in nanoseconds, {@code 0} when the server is not ramped up
+   * @param nodeName the node of the pod or {@code null}
+   * @param zone the zone of the pod or {@code null}
+   * @param hints the zones the server should serve, {@code null} when the server has no topology hints
+   */
+  KubeServer(SocketAddress address, boolean ready, long readyTime, long slowStart, String nodeName, String zone, List<String> hints) {
+    this.address = address;
+    this.ready = ready;
+    this.readyTime = readyTime;
+    this.slowStart = slowStart;
+    this.nodeName = nodeName;
+    this.zone = zone;
+    this.hints = hints;
+  }
+
+  /**
+   * @return the server address
+   */
+  public SocketAddress address() {
+    return address;
+  }
+
+  /**
+   * @return the name of the node of the pod or {@code null} when it is unknown
+   */
+  public String nodeName() {
+    return nodeName;
+  }
+
+  /**
+   * @return the zone of the pod or {@code null} when it is unknown
+   */
+  public String zone() {
+    return zone;
+  }
+
+  /**
+   * @return whether the server is terminating, such servers are only used when the service has no ready server left
+   */
+  public boolean isTerminating() {
+    return !ready;
+  }
+
+  /**
+   * @return the current weight of the server, between {@link #MIN_WEIGHT} and {@code 1}
+   */
+  public double weight() {
+    return weight(System.nanoTime());
+  }
+
+  double weight(long now) {
+    if (slowStart == 0L) {
+      return 1D;
+    }
+    long elapsed = now - readyTime;
+    if (elapsed >= slowStart) {
+      return 1D;
+    }
+    return Math.max(MIN_WEIGHT, (double) elapsed / slowStart);
+  }
+
+  /**
+   * @return the {@link System#nanoTime()} at which the ramp up ends
+   */
+  long rampEnd() {
+    return readyTime + slowStart;
+  }
+
+  @Override
+  public String toString() {
+    return address.toString();
+  }
+}
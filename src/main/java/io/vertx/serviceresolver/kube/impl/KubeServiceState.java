@@ -10,91 +10,170 @@
  */
 package io.vertx.serviceresolver.kube.impl;
 
-import io.vertx.core.http.WebSocket;
-import io.vertx.core.json.JsonArray;
-import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.SocketAddress;
 import io.vertx.core.spi.endpoint.EndpointBuilder;
 import io.vertx.serviceresolver.ServiceAddress;
+import io.vertx.serviceresolver.ServiceResolverMetrics;
+import io.vertx.serviceresolver.impl.EndpointSnapshot;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
 
 class KubeServiceState<B> {
 
+  final KubeWatch<B> watch;
   final ServiceAddress address;
   final String name;
-  final EndpointBuilder<B, SocketAddress> endpointsBuilder;
+  final EndpointBuilder<B, KubeServer> endpointsBuilder;
+  final ServiceResolverMetrics metrics;
+  final EndpointSnapshot snapshot;
+  final String snapshotKey;
+  final long slowStart;
+  final boolean terminatingFallback;
+  final KubeTopology topology;
   boolean disposed;
-  WebSocket webSocket;
   AtomicReference<B> endpoints = new AtomicReference<>();
+  private Map<String, KubeServer> servers = Collections.emptyMap();
+  private boolean listed;
   volatile boolean valid;
 
-  KubeServiceState(EndpointBuilder<B, SocketAddress> endpointsBuilder, ServiceAddress address, String name) {
+  KubeServiceState(KubeWatch<B> watch, EndpointBuilder<B, KubeServer> endpointsBuilder, ServiceAddress address, String name,
+                   ServiceResolverMetrics metrics, EndpointSnapshot snapshot, String snapshotKey,
+                   long slowStart, boolean terminatingFallback, KubeTopology topology) {
+    this.watch = watch;
+    this.metrics = metrics;
+    this.snapshot = snapshot;
+    this.snapshotKey = snapshotKey;
+    this.slowStart = slowStart;
+    this.terminatingFallback = terminatingFallback;
+    this.topology = topology;
     this.endpointsBuilder = endpointsBuilder;
     this.name = name;
     this.address = address;
     this.valid = true;
   }
 
-  void handleUpdate(JsonObject update) {
-    String type = update.getString("type");
-    switch (type) {
-      case "ADDED":
-      case "MODIFIED":
-      case "DELETED":
-        JsonObject object = update.getJsonObject("object");
-        JsonObject metadata = object.getJsonObject("metadata");
-        String resourceVersion = metadata.getString("resourceVersion");
-        updateEndpoints(object);
-        break;
-    }
-  }
-
-  void updateEndpoints(JsonObject item) {
-    JsonObject metadata = item.getJsonObject("metadata");
-    String name = metadata.getString("name");
-    if (this.name.equals(name)) {
-      JsonArray subsets = item.getJsonArray("subsets");
-      EndpointBuilder<B, SocketAddress> builder = endpointsBuilder;
-      if (subsets != null) {
-        for (int j = 0;j < subsets.size();j++) {
-          List<String> podIps = new ArrayList<>();
-          JsonObject subset = subsets.getJsonObject(j);
-          JsonArray addresses = subset.getJsonArray("addresses");
-          JsonArray ports = subset.getJsonArray("ports");
-          // Addresses array can be null when service pods are getting ready slowly
-          // and are first added to notReadyAddresses array.
-          if (addresses != null) {
-            for (int k = 0;k < addresses.size();k++) {
-              JsonObject address = addresses.getJsonObject(k);
-              String ip = address.getString("ip");
-              podIps.add(ip);
+  /**
+   * Update the endpoints from the resources of this service.
+   *
+   * The new servers are diffed against the current servers, when the servers are unchanged the current endpoint
+   * and its load balancing state are retained, otherwise the endpoint is built again and retains the addresses
+   * of the servers it still has.
+   *
+   * A server that becomes ready after the resources were first listed is ramped up over the slow start window. When
+   * the service has no ready server, the terminating servers still serving are used if the fallback is enabled.
+   *
+   * When the resolver prefers its zone, the endpoint is built with the servers of the zone.
+   *
+   * @param resources the resources, empty when the service has no endpoints
+   */
+  void updateEndpoints(Collection<KubeResource> resources) {
+    Map<String, KubeServer> current = servers;
+    Map<String, KubeServer> next = new LinkedHashMap<>();
+    Map<String, KubeServer> terminating = null;
+    long now = System.nanoTime();
+    long ramp = listed ? slowStart : 0L;
+    int retained = 0;
+    for (KubeResource resource : resources) {
+      for (KubeResource.Subset subset : resource.subsets) {
+        for (KubeResource.Port port : subset.ports) {
+          if (address instanceof KubernetesServiceAddress) {
+            KubernetesServiceAddress kubernetesAddress = (KubernetesServiceAddress) address;
+            if (kubernetesAddress.portNumber > 0 && kubernetesAddress.portNumber != port.port) {
+              continue;
+            }
+            if (kubernetesAddress.portName != null && !kubernetesAddress.portName.equals(port.name)) {
+              continue;
             }
           }
-          for (int k = 0;k < ports.size();k++) {
-            JsonObject port = ports.getJsonObject(k);
-            int portNumber = port.getInteger("port");
-            String portName = port.getString("name");
-            if (address instanceof KubernetesServiceAddress) {
-              KubernetesServiceAddress kubernetesAddress = (KubernetesServiceAddress) address;
-              if (kubernetesAddress.portNumber > 0 && kubernetesAddress.portNumber != portNumber) {
-                continue;
+          for (KubeResource.Endpoint endpoint : subset.endpoints) {
+            String key = endpoint.ip + "-" + port.port;
+            if (endpoint.ready) {
+              // The same address might appear in several slices
+              if (!next.containsKey(key)) {
+                KubeServer server = current.get(key);
+                if (server != null && server.ready && sameTopology(server, endpoint)) {
+                  retained++;
+                } else if (server != null && server.ready) {
+                  // Still ready, keep ramping up
+                  server = new KubeServer(server.address, true, server.readyTime, server.slowStart, endpoint.nodeName, endpoint.zone, endpoint.hints);
+                } else {
+                  server = new KubeServer(SocketAddress.inetSocketAddress(port.port, endpoint.ip), true, now, ramp, endpoint.nodeName, endpoint.zone, endpoint.hints);
+                }
+                next.put(key, server);
               }
-              if (kubernetesAddress.portName != null && !kubernetesAddress.portName.equals(portName)) {
-                continue;
+            } else if (terminatingFallback && endpoint.serving && endpoint.terminating) {
+              if (terminating == null) {
+                terminating = new LinkedHashMap<>();
+              }
+              if (!terminating.containsKey(key)) {
+                KubeServer server = current.get(key);
+                if (server == null || server.ready || !sameTopology(server, endpoint)) {
+                  server = new KubeServer(SocketAddress.inetSocketAddress(port.port, endpoint.ip), false, now, 0L, endpoint.nodeName, endpoint.zone, endpoint.hints);
+                }
+                terminating.put(key, server);
               }
             }
-            for (String podIp : podIps) {
-              SocketAddress podAddress = SocketAddress.inetSocketAddress(portNumber, podIp);
-              builder = builder.addServer(podAddress, podIp + "-" + port);
-            }
-            break;
           }
+          break;
         }
       }
-      this.endpoints.set(builder.build());
     }
+    listed = true;
+    if (next.isEmpty() && terminating != null) {
+      // Last resort
+      retained = 0;
+      for (Map.Entry<String, KubeServer> server : terminating.entrySet()) {
+        if (current.get(server.getKey()) == server.getValue()) {
+          retained++;
+        }
+      }
+      next = terminating;
+    } else if (snapshot != null && (retained != next.size() || retained != current.size())) {
+      List<EndpointSnapshot.Server> list = new ArrayList<>(next.size());
+      for (KubeServer server : next.values()) {
+        list.add(new EndpointSnapshot.Server(server.address.host(), server.address.port(), 0, 0));
+      }
+      snapshot.put(snapshotKey, list);
+    }
+    if (retained == next.size() && retained == current.size() && endpoints.get() != null) {
+      // Same servers
+      return;
+    }
+    build(next);
+  }
+
+  private static boolean sameTopology(KubeServer server, KubeResource.Endpoint endpoint) {
+    return Objects.equals(server.nodeName, endpoint.nodeName)
+      && Objects.equals(server.zone, endpoint.zone)
+      && Objects.equals(server.hints, endpoint.hints);
+  }
+
+  /**
+   * Restore the endpoints from the snapshot of this service, until the resources are listed.
+   */
+  void restore(List<EndpointSnapshot.Server> snapshot) {
+    Map<String, KubeServer> next = new LinkedHashMap<>();
+    for (EndpointSnapshot.Server server : snapshot) {
+      next.put(server.host + "-" + server.port, new KubeServer(SocketAddress.inetSocketAddress(server.port, server.host), true, 0L, 0L, null, null, null));
+    }
+    build(next);
+  }
+
+  private void build(Map<String, KubeServer> next) {
+    Map<String, KubeServer> selected = topology != null ? topology.select(next) : next;
+    EndpointBuilder<B, KubeServer> builder = endpointsBuilder;
+    for (Map.Entry<String, KubeServer> server : selected.entrySet()) {
+      builder = builder.addServer(server.getValue(), server.getKey());
+    }
+    servers = next;
+    endpoints.set(builder.build());
+    metrics.endpointsUpdated(address, selected.size());
   }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Holds the bearer token of the resolver, the token is published atomically so it can be read without contention.
+ *
+ * When the token is a JWT carrying an {@code exp} claim (like projected service account tokens), the token is
+ * refreshed from the provider in the background before it expires, after 80% of its remaining lifetime. When the
+ * provider fails or has no token, the refresh is retried with an exponential backoff.
+ *
+ * The provider usually reads a file, it is always called on a worker thread.
+ */
+class KubeTokenHolder {
+
+  static final long MIN_REFRESH_DELAY = 5_000;
+  static final long MAX_RETRY_DELAY = 60_000;
+
+  private final Vertx vertx;
+  private final Supplier<String> provider;
+  private final AtomicReference<String> token = new AtomicReference<>();
+  private long timerID = -1L;
+  private boolean closed;
+
+  KubeTokenHolder(Vertx vertx, Supplier<String> provider) {
+    this.vertx = vertx;
+    this.provider = provider;
+  }
+
+  /**
+   * @return the current token, the provider is called when no token is available
+   */
+  Future<String> get() {
+    String current = token.get();
+    if (current != null || provider == null) {
+      return Future.succeededFuture(current);
+    }
+    return vertx.executeBlocking(provider::get, false).map(fresh -> {
+      if (fresh != null && token.compareAndSet(null, fresh)) {
+        schedule(fresh);
+      }
+      return fresh;
+    });
+  }
+
+  /**
+   * Called when the server rejected the {@code rejected} token, the provider is called for a fresh token.
+   *
+   * @return the fresh token or {@code null} when the provider has no other token
+   */
+  Future<String> refresh(String rejected) {
+    if (provider == null) {
+      return Future.succeededFuture();
+    }
+    return vertx.executeBlocking(provider::get, false).map(fresh -> {
+      if (fresh == null || fresh.equals(rejected)) {
+        return null;
+      }
+      if (token.compareAndSet(rejected, fresh)) {
+        schedule(fresh);
+      }
+      return fresh;
+    });
+  }
+
+  private void schedule(String current) {
+    long expiration = expiration(current);
+    if (expiration < 0) {
+      return;
+    }
+    schedule(current, Math.max(MIN_REFRESH_DELAY, (expiration - System.currentTimeMillis()) * 4 / 5), MIN_REFRESH_DELAY);
+  }
+
+  /**
+   * Schedule the refresh of the {@code current} token after {@code delay}, a failed refresh is retried after
+   * {@code retryDelay}.
+   */
+  private void schedule(String current, long delay, long retryDelay) {
+    long id;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      id = timerID;
+      timerID = vertx.setTimer(delay, v -> {
+        synchronized (KubeTokenHolder.this) {
+          timerID = -1L;
+        }
+        vertx.executeBlocking(provider::get, false).onComplete(ar -> {
+          String fresh = ar.succeeded() ? ar.result() : null;
+          if (fresh == null) {
+            // The provider failed, keep the current token until it succeeds
+            schedule(current, retryDelay, Math.min(retryDelay * 2, MAX_RETRY_DELAY));
+          } else if (fresh.equals(current)) {
+            // Not rotated yet
+            schedule(current);
+          } else if (token.compareAndSet(current, fresh)) {
+            schedule(fresh);
+          }
+          // Otherwise the token was refreshed after a rejection, which scheduled the next refresh
+        });
+      });
+    }
+    if (id >= 0) {
+      vertx.cancelTimer(id);
+    }
+  }
+
+  void close() {
+    long id;
+    synchronized (this) {
+      closed = true;
+      id = timerID;
+      timerID = -1L;
+    }
+    if (id >= 0) {
+      vertx.cancelTimer(id);
+    }
+  }
+
+  /**
+   * @return the expiration of a JWT in milliseconds since the epoch or {@code -1} when the token does not expire
+   */
+  static long expiration(String token) {
+    int start = token.indexOf('.');
+    int end = start >= 0 ? token.indexOf('.', start + 1) : -1;
+    if (end < 0) {
+      return -1L;
+    }
+    try {
+      byte[] payload = Base64.getUrlDecoder().decode(token.substring(start + 1, end).trim());
+      Object exp = new JsonObject(Buffer.buffer(payload)).getValue("exp");
+      return exp instanceof Number ? ((Number) exp).longValue() * 1000 : -1L;
+    } catch (Exception e) {
+      return -1L;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import io.vertx.serviceresolver.kube.KubeTopologyMode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Selects the servers of the zone of the resolver.
+ *
+ * When all the servers carry topology hints, the servers hinted for the zone are selected, otherwise the servers
+ * located in the zone are selected. All the servers are used when the zone has less servers than the minimum, so a
+ * zone with a low capacity does not receive all the traffic of the clients of its zone.
+ */
+class KubeTopology {
+
+  /**
+   * @return the topology or {@code null} when the servers are selected regardless of their zone
+   */
+  static KubeTopology create(KubeTopologyMode mode, String zone, int minZoneServers) {
+    if (mode != KubeTopologyMode.PREFER_ZONE || zone == null) {
+      return null;
+    }
+    return new KubeTopology(zone, minZoneServers);
+  }
+
+  final String zone;
+  final int minZoneServers;
+
+  KubeTopology(String zone, int minZoneServers) {
+    this.zone = zone;
+    this.minZoneServers = minZoneServers;
+  }
+
+  /**
+   * @return the servers to use among the {@code servers}
+   */
+  Map<String, KubeServer> select(Map<String, KubeServer> servers) {
+    boolean hinted = !servers.isEmpty();
+    for (KubeServer server : servers.values()) {
+      if (server.hints == null) {
+        hinted = false;
+        break;
+      }
+    }
+    Map<String, KubeServer> local = new LinkedHashMap<>();
+    for (Map.Entry<String, KubeServer> entry : servers.entrySet()) {
+      KubeServer server = entry.getValue();
+      if (hinted ? server.hints.contains(zone) : zone.equals(server.zone)) {
+        local.put(entry.getKey(), server);
+      }
+    }
+    return local.size() >= minZoneServers ? local : servers;
+  }
+}
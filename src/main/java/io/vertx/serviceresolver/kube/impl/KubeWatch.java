@@ -0,0 +1,443 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.UpgradeRejectedException;
+import io.vertx.core.http.WebSocket;
+import io.vertx.core.spi.endpoint.EndpointBuilder;
+import io.vertx.serviceresolver.ServiceAddress;
+import io.vertx.serviceresolver.impl.EndpointSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A watch of the {@code Endpoints} or {@code EndpointSlice} resources of a namespace, shared by all the services
+ * resolved in this namespace, or narrowed to a single service by a {@code selector}, or of all the namespaces of
+ * the cluster when the namespace is {@code null}. All the watches of a resolver share its HTTP and WebSocket clients.
+ *
+ * The watch lists the resources once and then keeps a local cache of the resources up to date, services
+ * are resolved from this cache. Watch events are dispatched to the interested service states by namespace and
+ * service name.
+ *
+ * When the watch is closed by the server, it is resumed in the background from the last observed resource version
+ * with a jittered exponential backoff, the service states keep serving their endpoints meanwhile. The resources are
+ * listed again only when the server reports the resource version is gone.
+ *
+ * When the resolver has an endpoint snapshot, services are served from the snapshot until the resources are listed.
+ * When the list fails, e.g. during an outage of the API server, the services keep being served from the snapshot and
+ * the list is retried with the reconnection backoff, the resolutions of the other services wait for the retry.
+ */
+class KubeWatch<B> {
+
+  static final long INITIAL_RECONNECT_DELAY = 500;
+  static final long MAX_RECONNECT_DELAY = 30_000;
+  static final int UNAUTHORIZED = 401;
+  static final int GONE = 410;
+  static final int MAX_LIST_RESTARTS = 3;
+
+  private final KubeResolverImpl<B> resolver;
+  final String key;
+  private final String namespace;
+  private final String selector;
+  private Map<String, Map<String, KubeResource>> items = new HashMap<>();
+  private final Map<String, List<KubeServiceState<B>>> states = new HashMap<>();
+  private Future<Void> ready;
+  private WebSocket webSocket;
+  private String resourceVersion;
+  private boolean relist;
+  private int attempts;
+  private long timerID = -1L;
+
+  KubeWatch(KubeResolverImpl<B> resolver, String key, String namespace, String selector) {
+    this.resolver = resolver;
+    this.key = key;
+    this.namespace = namespace;
+    this.selector = selector;
+  }
+
+  /**
+   * Resolve a service from the cache, the namespace is listed and watched first when needed.
+   */
+  Future<KubeServiceState<B>> resolve(ServiceAddress address, EndpointBuilder<B, KubeServer> builder) {
+    Future<Void> fut = start();
+    if (!fut.succeeded() && resolver.snapshot != null) {
+      List<EndpointSnapshot.Server> servers = resolver.snapshot.get(resolver.snapshotKey(address));
+      if (servers != null) {
+        // Serve the snapshot until the resources are listed
+        KubeServiceState<B> state = subscribe(fut, address, builder, servers);
+        if (state != null) {
+          return Future.succeededFuture(state);
+        }
+      }
+    }
+    return fut.compose(v -> {
+      KubeServiceState<B> state = subscribe(fut, address, builder, null);
+      if (state == null) {
+        // The watch was stopped in the meantime, resolve again with the watch that replaced it
+        return resolver.resolve(address, builder);
+      }
+      return Future.succeededFuture(state);
+    });
+  }
+
+  private synchronized KubeServiceState<B> subscribe(Future<Void> fut, ServiceAddress address, EndpointBuilder<B, KubeServer> builder, List<EndpointSnapshot.Server> snapshot) {
+    if (ready != fut) {
+      return null;
+    }
+    String serviceKey = serviceKey(resolver.namespace(address), address.name());
+    KubeServiceState<B> state = new KubeServiceState<>(this, builder, address, serviceKey, resolver.metrics,
+      resolver.snapshot, resolver.snapshotKey(address), resolver.slowStart, resolver.terminatingFallback, resolver.topology);
+    states.computeIfAbsent(state.name, name -> new ArrayList<>()).add(state);
+    if (snapshot != null && resourceVersion == null) {
+      state.restore(snapshot);
+    } else {
+      state.updateEndpoints(resources(state.name));
+    }
+    return state;
+  }
+
+  void unregister(KubeServiceState<B> state) {
+    Future<Void> fut;
+    synchronized (this) {
+      List<KubeServiceState<B>> list = states.get(state.name);
+      if (list == null || !list.remove(state)) {
+        return;
+      }
+      if (list.isEmpty()) {
+        states.remove(state.name);
+      }
+      if (!states.isEmpty()) {
+        return;
+      }
+      // Nobody is interested anymore
+      fut = ready;
+    }
+    resolver.removeWatch(this);
+    stop(fut);
+  }
+
+  private synchronized Future<Void> start() {
+    if (ready == null) {
+      Promise<Void> promise = Promise.promise();
+      ready = promise.future();
+      start(promise, 0L);
+    }
+    return ready;
+  }
+
+  /**
+   * List and watch the resources after {@code delay} milliseconds, {@code promise} is completed when the resources
+   * are listed and watched.
+   */
+  private void start(Promise<Void> promise, long delay) {
+    Future<Void> fut = promise.future();
+    fut.onFailure(err -> handleStartFailure(fut));
+    if (delay == 0L) {
+      list(fut)
+        .compose(v -> connect(fut))
+        .onComplete(promise);
+    } else {
+      timerID = resolver.vertx.setTimer(delay, id -> {
+        synchronized (KubeWatch.this) {
+          if (ready != fut) {
+            return;
+          }
+          timerID = -1L;
+        }
+        list(fut)
+          .compose(v -> connect(fut))
+          .onComplete(promise);
+      });
+    }
+  }
+
+  /**
+   * The resources could not be listed or watched, the watch is stopped unless services are served from the
+   * snapshot: the watch is then started again with a backoff and the services keep being served meanwhile.
+   */
+  private void handleStartFailure(Future<Void> fut) {
+    synchronized (this) {
+      if (ready != fut) {
+        return;
+      }
+      if (!states.isEmpty()) {
+        // Only services served from the snapshot are subscribed before the watch is started
+        Promise<Void> promise = Promise.promise();
+        ready = promise.future();
+        start(promise, reconnectDelay(++attempts));
+        return;
+      }
+    }
+    stop(fut);
+  }
+
+  /**
+   * List the resources and replace the cache, the service states are updated with the listed resources.
+   */
+  private Future<Void> list(Future<Void> fut) {
+    Map<String, Map<String, KubeResource>> listed = new HashMap<>();
+    return list(fut, listed, null, 0).compose(rv -> {
+      synchronized (KubeWatch.this) {
+        if (ready != fut) {
+          return Future.failedFuture("Watch closed");
+        }
+        items = listed;
+        resourceVersion = rv;
+        states.forEach((serviceName, serviceStates) -> {
+          Collection<KubeResource> resources = resources(serviceName);
+          for (KubeServiceState<B> state : serviceStates) {
+            state.updateEndpoints(resources);
+          }
+        });
+      }
+      return Future.succeededFuture();
+    });
+  }
+
+  /**
+   * List the resources page by page, each page is folded in {@code listed} as it arrives.
+   *
+   * @return the resource version of the list
+   */
+  private Future<String> list(Future<Void> fut, Map<String, Map<String, KubeResource>> listed, String continueToken, int restarts) {
+    return resolver
+      .listEndpoints(namespace, selector, continueToken)
+      .transform(ar -> {
+        if (ar.failed()) {
+          if (ar.cause() instanceof KubeResolverImpl.ListExpiredException && restarts < MAX_LIST_RESTARTS) {
+            // The list took too long and the server compacted its snapshot, start over
+            listed.clear();
+            return list(fut, listed, null, restarts + 1);
+          }
+          return Future.failedFuture(ar.cause());
+        }
+        KubeBackend.ResourceList page = ar.result().payload;
+        for (KubeResource resource : page.items) {
+          listed.computeIfAbsent(serviceKey(resource), name -> new HashMap<>()).put(resource.name, resource);
+        }
+        if (page.continueToken == null) {
+          return Future.succeededFuture(page.resourceVersion);
+        }
+        synchronized (KubeWatch.this) {
+          if (ready != fut) {
+            return Future.failedFuture("Watch closed");
+          }
+        }
+        return list(fut, listed, page.continueToken, restarts);
+      });
+  }
+
+  private Future<Void> connect(Future<Void> fut) {
+    String rv;
+    synchronized (this) {
+      rv = resourceVersion;
+    }
+    return resolver
+      .token()
+      .compose(token -> resolver
+        .connectWebSocket(namespace, selector, rv, token, buff -> handleUpdate(fut, buff), v -> handleClose(fut))
+        .onFailure(err -> {
+          if (token != null && err instanceof UpgradeRejectedException && ((UpgradeRejectedException) err).getStatus() == UNAUTHORIZED) {
+            // The token might have been revoked
+            resolver.refreshToken(token);
+          }
+        }))
+      .compose(ws -> {
+        synchronized (KubeWatch.this) {
+          if (ready == fut) {
+            webSocket = ws;
+            return Future.succeededFuture();
+          }
+        }
+        ws.close();
+        return Future.failedFuture("Watch closed");
+      });
+  }
+
+  private void handleUpdate(Future<Void> fut, Buffer buff) {
+    long start = System.nanoTime();
+    try {
+      handleEvent(fut, resolver.backend.event(buff));
+    } finally {
+      resolver.metrics.watchEventProcessed(buff.length(), System.nanoTime() - start);
+    }
+  }
+
+  private void handleEvent(Future<Void> fut, KubeBackend.WatchEvent event) {
+    WebSocket gone = null;
+    synchronized (this) {
+      if (ready != fut) {
+        return;
+      }
+      attempts = 0;
+      switch (String.valueOf(event.type)) {
+        case "ADDED":
+        case "MODIFIED":
+        case "DELETED":
+          resourceVersion = event.resourceVersion;
+          if (event.resource != null) {
+            handleUpdate(event.resource, event.type.equals("DELETED"));
+          }
+          break;
+        case "BOOKMARK":
+          resourceVersion = event.resourceVersion;
+          break;
+        case "ERROR":
+          if (event.code == GONE) {
+            // Our resource version is too old, the resources must be listed again
+            relist = true;
+            gone = webSocket;
+          }
+          break;
+      }
+    }
+    if (gone != null) {
+      gone.close();
+    }
+  }
+
+  private void handleUpdate(KubeResource resource, boolean deleted) {
+    String serviceName = serviceKey(resource);
+    if (deleted) {
+      Map<String, KubeResource> resources = items.get(serviceName);
+      if (resources != null && resources.remove(resource.name) != null && resources.isEmpty()) {
+        items.remove(serviceName);
+      }
+    } else {
+      items.computeIfAbsent(serviceName, name -> new HashMap<>()).put(resource.name, resource);
+    }
+    List<KubeServiceState<B>> list = states.get(serviceName);
+    if (list != null) {
+      Collection<KubeResource> resources = resources(serviceName);
+      for (KubeServiceState<B> state : list) {
+        state.updateEndpoints(resources);
+      }
+    }
+  }
+
+  /**
+   * @return the key of the service of a resource, the namespace of the watch is used when the resource does not
+   * carry its namespace
+   */
+  private String serviceKey(KubeResource resource) {
+    return serviceKey(resource.namespace != null ? resource.namespace : namespace, resource.serviceName);
+  }
+
+  private static String serviceKey(String namespace, String serviceName) {
+    return namespace + "/" + serviceName;
+  }
+
+  private Collection<KubeResource> resources(String serviceName) {
+    Map<String, KubeResource> resources = items.get(serviceName);
+    return resources != null ? resources.values() : Collections.emptyList();
+  }
+
+  private synchronized void handleClose(Future<Void> fut) {
+    if (ready != fut) {
+      return;
+    }
+    webSocket = null;
+    scheduleReconnect(fut);
+  }
+
+  private void scheduleReconnect(Future<Void> fut) {
+    long delay = reconnectDelay(attempts++);
+    timerID = resolver.vertx.setTimer(delay, id -> reconnect(fut));
+  }
+
+  /**
+   * @return the delay before a reconnection {@code attempt}, the first attempt is immediate
+   */
+  static long reconnectDelay(int attempt) {
+    if (attempt == 0) {
+      return 1;
+    }
+    long max = Math.min(MAX_RECONNECT_DELAY, INITIAL_RECONNECT_DELAY << Math.min(attempt - 1, 16));
+    return max / 2 + ThreadLocalRandom.current().nextLong(max / 2 + 1);
+  }
+
+  private void reconnect(Future<Void> fut) {
+    boolean relist;
+    synchronized (this) {
+      if (ready != fut) {
+        return;
+      }
+      timerID = -1L;
+      relist = this.relist;
+      this.relist = false;
+    }
+    resolver.metrics.watchReconnected();
+    Future<Void> reconnection = relist ? list(fut).compose(v -> connect(fut)) : connect(fut);
+    reconnection.onFailure(err -> {
+      synchronized (KubeWatch.this) {
+        if (ready != fut) {
+          return;
+        }
+        if (relist || (err instanceof UpgradeRejectedException && ((UpgradeRejectedException) err).getStatus() == GONE)) {
+          this.relist = true;
+        }
+        scheduleReconnect(fut);
+      }
+    });
+  }
+
+  /**
+   * Stop the watch when {@code fut} is the current watch: the cache is cleared and the service states are invalidated
+   * so they will be resolved again.
+   */
+  private void stop(Future<Void> fut) {
+    WebSocket ws;
+    long id;
+    List<KubeServiceState<B>> invalidated = new ArrayList<>();
+    synchronized (this) {
+      if (ready != fut || fut == null) {
+        return;
+      }
+      ready = null;
+      ws = webSocket;
+      webSocket = null;
+      id = timerID;
+      timerID = -1L;
+      items = new HashMap<>();
+      resourceVersion = null;
+      relist = false;
+      attempts = 0;
+      states.values().forEach(invalidated::addAll);
+      states.clear();
+    }
+    for (KubeServiceState<B> state : invalidated) {
+      state.valid = false;
+    }
+    if (id >= 0) {
+      resolver.vertx.cancelTimer(id);
+    }
+    if (ws != null) {
+      ws.close();
+    }
+  }
+
+  void close() {
+    Future<Void> fut;
+    synchronized (this) {
+      fut = ready;
+    }
+    stop(fut);
+  }
+}
@@ -5,11 +5,17 @@ import io.vertx.serviceresolver.ServiceAddress;
 public class KubernetesServiceAddress implements ServiceAddress {
 
   final String name;
+  final String namespace;
   final int portNumber;
   final String portName;
 
   public KubernetesServiceAddress(String name, int portNumber, String portName) {
+    this(name, null, portNumber, portName);
+  }
+
+  public KubernetesServiceAddress(String name, String namespace, int portNumber, String portName) {
     this.name = name;
+    this.namespace = namespace;
     this.portNumber = portNumber;
     this.portName = portName;
   }
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A minimal reader of protobuf messages backed by a region of a buffer, nested messages are read in place without
+ * copying the buffer.
+ */
+class ProtoReader {
+
+  static final int VARINT = 0;
+  static final int FIXED64 = 1;
+  static final int LENGTH_DELIMITED = 2;
+  static final int FIXED32 = 5;
+
+  /**
+   * The magic prefix of a Kubernetes protobuf object, followed by a {@code runtime.Unknown} envelope.
+   */
+  private static final byte[] MAGIC = { 'k', '8', 's', 0 };
+
+  private final Buffer buffer;
+  private final int end;
+  private int pos;
+  private int tag;
+
+  ProtoReader(Buffer buffer, int start, int end) {
+    if (start < 0 || end > buffer.length() || start > end) {
+      throw new DecodeException("Invalid protobuf message bounds");
+    }
+    this.buffer = buffer;
+    this.pos = start;
+    this.end = end;
+  }
+
+  /**
+   * @return whether the region {@code [start, end)} of the {@code buffer} starts with the Kubernetes magic prefix
+   */
+  static boolean isEnveloped(Buffer buffer, int start, int end) {
+    if (end - start < MAGIC.length) {
+      return false;
+    }
+    for (int i = 0;i < MAGIC.length;i++) {
+      if (buffer.getByte(start + i) != MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Read the object of a region of the {@code buffer}, the {@code runtime.Unknown} envelope is removed when present.
+   */
+  static ProtoReader object(Buffer buffer, int start, int end) {
+    if (!isEnveloped(buffer, start, end)) {
+      return new ProtoReader(buffer, start, end);
+    }
+    ProtoReader unknown = new ProtoReader(buffer, start + MAGIC.length, end);
+    while (unknown.next()) {
+      if (unknown.field() == 2 && unknown.wireType() == LENGTH_DELIMITED) {
+        // raw
+        return unknown.readMessage();
+      }
+      unknown.skip();
+    }
+    return new ProtoReader(buffer, end, end);
+  }
+
+  /**
+   * Move to the next field.
+   *
+   * @return whether a field is available
+   */
+  boolean next() {
+    if (pos >= end) {
+      return false;
+    }
+    tag = (int) readVarint();
+    return true;
+  }
+
+  int field() {
+    return tag >>> 3;
+  }
+
+  int wireType() {
+    return tag & 7;
+  }
+
+  long readVarint() {
+    long value = 0;
+    for (int shift = 0;shift < 64;shift += 7) {
+      if (pos >= end) {
+        throw new DecodeException("Truncated protobuf varint");
+      }
+      byte b = buffer.getByte(pos++);
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new DecodeException("Malformed protobuf varint");
+  }
+
+  int readInt() {
+    return (int) readVarint();
+  }
+
+  boolean readBool() {
+    return readVarint() != 0;
+  }
+
+  String readString() {
+    int len = readLength();
+    String s = buffer.getString(pos, pos + len, StandardCharsets.UTF_8.name());
+    pos += len;
+    return s;
+  }
+
+  /**
+   * Read the current length delimited field as a nested message.
+   */
+  ProtoReader readMessage() {
+    int len = readLength();
+    ProtoReader reader = new ProtoReader(buffer, pos, pos + len);
+    pos += len;
+    return reader;
+  }
+
+  /**
+   * Read the current length delimited field as a nested object, see {@link #object(Buffer, int, int)}.
+   */
+  ProtoReader readObject() {
+    int len = readLength();
+    ProtoReader reader = object(buffer, pos, pos + len);
+    pos += len;
+    return reader;
+  }
+
+  /**
+   * Skip the value of the current field.
+   */
+  void skip() {
+    switch (wireType()) {
+      case VARINT:
+        readVarint();
+        break;
+      case FIXED64:
+        advance(8);
+        break;
+      case LENGTH_DELIMITED:
+        advance(readLength());
+        break;
+      case FIXED32:
+        advance(4);
+        break;
+      default:
+        throw new DecodeException("Unsupported protobuf wire type " + wireType());
+    }
+  }
+
+  private int readLength() {
+    long len = readVarint();
+    if (len < 0 || len > end - pos) {
+      throw new DecodeException("Truncated protobuf message");
+    }
+    return (int) len;
+  }
+
+  private void advance(int len) {
+    if (len > end - pos) {
+      throw new DecodeException("Truncated protobuf message");
+    }
+    pos += len;
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import io.vertx.core.net.endpoint.LoadBalancer;
+import io.vertx.core.net.endpoint.ServerEndpoint;
+import io.vertx.core.net.endpoint.ServerSelector;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load balancer ramping up the traffic sent to the Kubernetes servers that recently became ready.
+ *
+ * While a server is ramped up, servers are selected randomly in proportion of their {@link KubeServer#weight()},
+ * computed at selection time. Once all the servers are warm, servers are selected with the round-robin load balancer,
+ * the selection is then as cheap as the round-robin selection.
+ *
+ * Servers that are not Kubernetes servers are considered warm.
+ */
+public class SlowStartLoadBalancer implements LoadBalancer {
+
+  public static final SlowStartLoadBalancer INSTANCE = new SlowStartLoadBalancer();
+
+  @Override
+  public ServerSelector selector(List<? extends ServerEndpoint> servers) {
+    ServerSelector roundRobin = LoadBalancer.ROUND_ROBIN.selector(servers);
+    int size = servers.size();
+    KubeServer[] kubeServers = new KubeServer[size];
+    long rampEnd = 0L;
+    boolean ramping = false;
+    long now = System.nanoTime();
+    for (int i = 0;i < size;i++) {
+      Object server = servers.get(i).unwrap();
+      if (server instanceof KubeServer) {
+        KubeServer kubeServer = (KubeServer) server;
+        kubeServers[i] = kubeServer;
+        if (kubeServer.slowStart > 0L && kubeServer.rampEnd() - now > 0L) {
+          rampEnd = ramping ? Math.max(rampEnd, kubeServer.rampEnd()) : kubeServer.rampEnd();
+          ramping = true;
+        }
+      }
+    }
+    if (!ramping) {
+      return roundRobin;
+    }
+    return new SlowStartSelector(kubeServers, rampEnd, roundRobin);
+  }
+
+  static final class SlowStartSelector implements ServerSelector {
+
+    private final KubeServer[] servers;
+    private final long rampEnd;
+    private final ServerSelector warm;
+
+    SlowStartSelector(KubeServer[] servers, long rampEnd, ServerSelector warm) {
+      this.servers = servers;
+      this.rampEnd = rampEnd;
+      this.warm = warm;
+    }
+
+    @Override
+    public int select() {
+      long now = System.nanoTime();
+      if (now - rampEnd >= 0L) {
+        return warm.select();
+      }
+      double total = 0D;
+      for (KubeServer server : servers) {
+        total += server != null ? server.weight(now) : 1D;
+      }
+      double value = ThreadLocalRandom.current().nextDouble() * total;
+      for (int i = 0;i < servers.length;i++) {
+        KubeServer server = servers[i];
+        value -= server != null ? server.weight(now) : 1D;
+        if (value < 0D) {
+          return i;
+        }
+      }
+      // Rounding errors
+      return servers.length - 1;
+    }
+  }
+}
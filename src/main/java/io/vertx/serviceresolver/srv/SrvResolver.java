@@ -11,7 +11,9 @@
 package io.vertx.serviceresolver.srv;
 
 import io.vertx.core.net.AddressResolver;
+import io.vertx.core.net.endpoint.LoadBalancer;
 import io.vertx.serviceresolver.impl.ServiceAddressResolver;
+import io.vertx.serviceresolver.srv.impl.SrvLoadBalancer;
 import io.vertx.serviceresolver.srv.impl.SrvResolverImpl;
 
 /**
@@ -19,6 +21,13 @@ import io.vertx.serviceresolver.srv.impl.SrvResolverImpl;
  */
 public interface SrvResolver {
 
+  /**
+   * Load balancer honouring the priority and the weight of SRV records (RFC 2782): servers of the lowest priority
+   * are selected in proportion of their weight, servers of the next priority are selected when the lower priority
+   * has no server left or only zero weight servers.
+   */
+  LoadBalancer LOAD_BALANCER = SrvLoadBalancer.INSTANCE;
+
   /**
    * Create an address resolver configured by the {@code options}.
    *
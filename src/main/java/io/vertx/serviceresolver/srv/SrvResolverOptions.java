@@ -11,32 +11,55 @@
 package io.vertx.serviceresolver.srv;
 
 import io.vertx.codegen.annotations.DataObject;
+import io.vertx.codegen.annotations.GenIgnore;
 import io.vertx.codegen.json.annotations.JsonGen;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.SocketAddress;
+import io.vertx.serviceresolver.ServiceAddress;
+import io.vertx.serviceresolver.ServiceResolverMetrics;
 import io.vertx.serviceresolver.ServiceResolverOptions;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @DataObject
-@JsonGen(publicConverter = false)
+@JsonGen(publicConverter = false, inheritConverter = true)
 public class SrvResolverOptions extends ServiceResolverOptions {
 
   public static final SocketAddress DEFAULT_SERVER = SocketAddress.inetSocketAddress(53, "127.0.0.1");
   public static final int MIN_TTL = 0;
   public static final TimeUnit MIN_TTL_UNIT = TimeUnit.SECONDS;
+  public static final int MAX_TTL = Integer.MAX_VALUE;
+  public static final TimeUnit MAX_TTL_UNIT = TimeUnit.SECONDS;
+  public static final double TTL_JITTER = 0D;
+  public static final int STALE_TTL = 0;
+  public static final TimeUnit STALE_TTL_UNIT = TimeUnit.SECONDS;
+  public static final boolean RESOLVE_TARGETS = false;
 
   private SocketAddress server = DEFAULT_SERVER;
   private int minTTL = MIN_TTL;
   private TimeUnit minTTLUnit = TimeUnit.SECONDS;
+  private int maxTTL = MAX_TTL;
+  private TimeUnit maxTTLUnit = MAX_TTL_UNIT;
+  private double ttlJitter = TTL_JITTER;
+  private int staleTTL = STALE_TTL;
+  private TimeUnit staleTTLUnit = STALE_TTL_UNIT;
+  private boolean resolveTargets = RESOLVE_TARGETS;
 
   public SrvResolverOptions() {
   }
 
   public SrvResolverOptions(SrvResolverOptions other) {
+    super(other);
     this.server = other.server;
     this.minTTL = other.minTTL;
     this.minTTLUnit = other.minTTLUnit;
+    this.maxTTL = other.maxTTL;
+    this.maxTTLUnit = other.maxTTLUnit;
+    this.ttlJitter = other.ttlJitter;
+    this.staleTTL = other.staleTTL;
+    this.staleTTLUnit = other.staleTTLUnit;
+    this.resolveTargets = other.resolveTargets;
   }
 
   public SrvResolverOptions(JsonObject json) {
@@ -102,4 +125,186 @@ public class SrvResolverOptions extends ServiceResolverOptions {
     this.minTTLUnit = minTTLUnit;
     return this;
   }
+
+  /**
+   * @return the maximum amount of time in {@link #setMaxTTLUnit(TimeUnit) unit of time} the resolver caches DNS responses.
+   */
+  public int getMaxTTL() {
+    return maxTTL;
+  }
+
+  /**
+   * <p>Set the maximum amount of time in {@link #setMaxTTLUnit(TimeUnit) unit of time} the resolver caches DNS responses,
+   * the default value is {@link Integer#MAX_VALUE}</p>
+   *
+   * <p>This overrides the DNS packet TTL when the value is too large, this value has precedence over the
+   * {@link #setMinTTL(int) minimum TTL}.</p>
+   *
+   * @param maxTTL the maximum amount of time the resolver caches DNS responses
+   * @return this options instance
+   */
+  public SrvResolverOptions setMaxTTL(int maxTTL) {
+    if (maxTTL < 0) {
+      throw new IllegalArgumentException("Max TTL (" + maxTTL + ") must be >= 0");
+    }
+    this.maxTTL = maxTTL;
+    return this;
+  }
+
+  /**
+   * @return the unit of {@link #setMaxTTL(int)}.
+   */
+  public TimeUnit getMaxTTLUnit() {
+    return maxTTLUnit;
+  }
+
+  /**
+   * Set the unit of {@link #setMaxTTL(int)}, the default value is {@link TimeUnit#SECONDS}.
+   *
+   * @param maxTTLUnit the unit
+   * @return this options instance
+   */
+  public SrvResolverOptions setMaxTTLUnit(TimeUnit maxTTLUnit) {
+    this.maxTTLUnit = maxTTLUnit;
+    return this;
+  }
+
+  /**
+   * @return the fraction of the TTL by which a DNS response is randomly refreshed earlier
+   */
+  public double getTtlJitter() {
+    return ttlJitter;
+  }
+
+  /**
+   * <p>Set the fraction of the TTL by which a DNS response is randomly refreshed earlier, the default value is
+   * {@code 0}.</p>
+   *
+   * <p>A response with a 30 seconds TTL is refreshed between 24 and 30 seconds with a {@code 0.2} jitter, this spreads
+   * the refreshes of resolvers caching the same record so they do not query the DNS server at the same time.</p>
+   *
+   * @param ttlJitter the jitter, between {@code 0} and {@code 1}
+   * @return this options instance
+   */
+  public SrvResolverOptions setTtlJitter(double ttlJitter) {
+    if (ttlJitter < 0D || ttlJitter > 1D) {
+      throw new IllegalArgumentException("TTL jitter (" + ttlJitter + ") must be between 0 and 1");
+    }
+    this.ttlJitter = ttlJitter;
+    return this;
+  }
+
+  /**
+   * @return the amount of time in {@link #setStaleTTLUnit(TimeUnit) unit of time} the resolver serves expired DNS responses
+   */
+  public int getStaleTTL() {
+    return staleTTL;
+  }
+
+  /**
+   * <p>Set the amount of time in {@link #setStaleTTLUnit(TimeUnit) unit of time} the resolver serves expired DNS
+   * responses, the default value is {@code 0}.</p>
+   *
+   * <p>Once a DNS response has expired, the resolver keeps serving it while it is refreshed in the background, when
+   * the refresh fails it is retried with a backoff until this window elapses. Past this window, the service is
+   * resolved again. When the value is {@code 0}, the service is resolved again as soon as a refresh fails.</p>
+   *
+   * @param staleTTL the amount of time the resolver serves expired DNS responses
+   * @return this options instance
+   */
+  public SrvResolverOptions setStaleTTL(int staleTTL) {
+    if (staleTTL < 0) {
+      throw new IllegalArgumentException("Stale TTL (" + staleTTL + ") must be >= 0");
+    }
+    this.staleTTL = staleTTL;
+    return this;
+  }
+
+  /**
+   * @return the unit of {@link #setStaleTTL(int)}.
+   */
+  public TimeUnit getStaleTTLUnit() {
+    return staleTTLUnit;
+  }
+
+  /**
+   * Set the unit of {@link #setStaleTTL(int)}, the default value is {@link TimeUnit#SECONDS}.
+   *
+   * @param staleTTLUnit the unit
+   * @return this options instance
+   */
+  public SrvResolverOptions setStaleTTLUnit(TimeUnit staleTTLUnit) {
+    this.staleTTLUnit = staleTTLUnit;
+    return this;
+  }
+
+  /**
+   * @return whether the resolver resolves the target host names of the SRV records
+   */
+  public boolean isResolveTargets() {
+    return resolveTargets;
+  }
+
+  /**
+   * <p>Set whether the resolver resolves the target host names of the SRV records, the default value is {@code false}.</p>
+   *
+   * <p>When enabled, target host names are resolved to IP addresses when the SRV records are refreshed and cached
+   * according to the SRV records TTL, so connecting to a server does not perform a DNS lookup. A target that cannot
+   * be resolved is handed unresolved to the client.</p>
+   *
+   * @param resolveTargets whether to resolve the target host names
+   * @return this options instance
+   */
+  public SrvResolverOptions setResolveTargets(boolean resolveTargets) {
+    this.resolveTargets = resolveTargets;
+    return this;
+  }
+
+  @Override
+  public SrvResolverOptions setIdleTimeout(int idleTimeout) {
+    return (SrvResolverOptions) super.setIdleTimeout(idleTimeout);
+  }
+
+  @Override
+  public SrvResolverOptions setIdleTimeoutUnit(TimeUnit idleTimeoutUnit) {
+    return (SrvResolverOptions) super.setIdleTimeoutUnit(idleTimeoutUnit);
+  }
+
+  @Override
+  public SrvResolverOptions setSweepInterval(int sweepInterval) {
+    return (SrvResolverOptions) super.setSweepInterval(sweepInterval);
+  }
+
+  @Override
+  public SrvResolverOptions setMaxEntries(int maxEntries) {
+    return (SrvResolverOptions) super.setMaxEntries(maxEntries);
+  }
+
+  @GenIgnore
+  @Override
+  public SrvResolverOptions setMetrics(ServiceResolverMetrics metrics) {
+    return (SrvResolverOptions) super.setMetrics(metrics);
+  }
+
+  @GenIgnore
+  @Override
+  public SrvResolverOptions setWarmupAddresses(List<ServiceAddress> warmupAddresses) {
+    return (SrvResolverOptions) super.setWarmupAddresses(warmupAddresses);
+  }
+
+  @GenIgnore
+  @Override
+  public SrvResolverOptions addWarmupAddress(ServiceAddress warmupAddress) {
+    return (SrvResolverOptions) super.addWarmupAddress(warmupAddress);
+  }
+
+  @Override
+  public SrvResolverOptions setSnapshotPath(String snapshotPath) {
+    return (SrvResolverOptions) super.setSnapshotPath(snapshotPath);
+  }
+
+  @Override
+  public SrvResolverOptions setSnapshotInterval(int snapshotInterval) {
+    return (SrvResolverOptions) super.setSnapshotInterval(snapshotInterval);
+  }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.srv.impl;
+
+import io.vertx.core.dns.SrvRecord;
+import io.vertx.serviceresolver.impl.EndpointSnapshot;
+
+/**
+ * A SRV record restored from the endpoint snapshot.
+ */
+class SnapshotRecord implements SrvRecord {
+
+  private final String name;
+  private final EndpointSnapshot.Server server;
+
+  SnapshotRecord(String name, EndpointSnapshot.Server server) {
+    this.name = name;
+    this.server = server;
+  }
+
+  @Override
+  public int priority() {
+    return server.priority;
+  }
+
+  @Override
+  public int weight() {
+    return server.weight;
+  }
+
+  @Override
+  public int port() {
+    return server.port;
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public String protocol() {
+    return null;
+  }
+
+  @Override
+  public String service() {
+    return null;
+  }
+
+  @Override
+  public String target() {
+    return server.host;
+  }
+
+  @Override
+  public long ttl() {
+    return 0;
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.srv.impl;
+
+import io.vertx.core.dns.SrvRecord;
+import io.vertx.core.net.endpoint.LoadBalancer;
+import io.vertx.core.net.endpoint.ServerEndpoint;
+import io.vertx.core.net.endpoint.ServerSelector;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load balancer selecting servers according to the priority and the weight of their SRV records (RFC 2782).
+ *
+ * Servers are selected among the tier with the lowest priority value that has a positive total weight, higher
+ * tiers are used only when no server of the lower tiers remains or when all their weights are set to zero, so traffic
+ * can be drained from a tier through DNS. Within a tier, servers are selected in proportion of their weight with an
+ * alias table computed when the servers are updated, a selection is then constant time and does not allocate.
+ *
+ * A tier whose servers all have a zero weight is selected uniformly when no other tier is available. Unlike RFC 2782,
+ * a zero weight server of a tier with a positive total weight is never selected.
+ *
+ * Servers that are not backed by an SRV record are considered with a zero priority and a unit weight.
+ */
+public class SrvLoadBalancer implements LoadBalancer {
+
+  public static final SrvLoadBalancer INSTANCE = new SrvLoadBalancer();
+
+  @Override
+  public ServerSelector selector(List<? extends ServerEndpoint> servers) {
+    int size = servers.size();
+    if (size == 0) {
+      return () -> -1;
+    }
+    int[] priorities = new int[size];
+    int[] weights = new int[size];
+    for (int i = 0;i < size;i++) {
+      Object server = servers.get(i).unwrap();
+      if (server instanceof SrvRecord) {
+        SrvRecord record = (SrvRecord) server;
+        priorities[i] = record.priority();
+        weights[i] = Math.max(0, record.weight());
+      } else {
+        weights[i] = 1;
+      }
+    }
+    // Lowest priority tier with a positive weight, otherwise lowest priority tier
+    int weighted = Integer.MAX_VALUE;
+    int lowest = Integer.MAX_VALUE;
+    for (int i = 0;i < size;i++) {
+      lowest = Math.min(lowest, priorities[i]);
+      if (weights[i] > 0) {
+        weighted = Math.min(weighted, priorities[i]);
+      }
+    }
+    int priority = weighted != Integer.MAX_VALUE ? weighted : lowest;
+    boolean uniform = weighted == Integer.MAX_VALUE;
+    int count = 0;
+    for (int i = 0;i < size;i++) {
+      if (priorities[i] == priority && (uniform || weights[i] > 0)) {
+        count++;
+      }
+    }
+    int[] tier = new int[count];
+    long[] tierWeights = new long[count];
+    int j = 0;
+    for (int i = 0;i < size;i++) {
+      if (priorities[i] == priority && (uniform || weights[i] > 0)) {
+        tier[j] = i;
+        tierWeights[j++] = uniform ? 1 : weights[i];
+      }
+    }
+    if (count == 1) {
+      int index = tier[0];
+      return () -> index;
+    }
+    return new AliasSelector(tier, tierWeights);
+  }
+
+  /**
+   * Weighted selection with Vose's alias method.
+   */
+  static final class AliasSelector implements ServerSelector {
+
+    private final int[] servers;
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    AliasSelector(int[] servers, long[] weights) {
+      int n = servers.length;
+      long total = 0;
+      for (long weight : weights) {
+        total += weight;
+      }
+      double[] scaled = new double[n];
+      int[] small = new int[n];
+      int[] large = new int[n];
+      int smallSize = 0;
+      int largeSize = 0;
+      for (int i = 0;i < n;i++) {
+        scaled[i] = (double) weights[i] * n / total;
+        if (scaled[i] < 1D) {
+          small[smallSize++] = i;
+        } else {
+          large[largeSize++] = i;
+        }
+      }
+      double[] probabilities = new double[n];
+      int[] aliases = new int[n];
+      while (smallSize > 0 && largeSize > 0) {
+        int s = small[--smallSize];
+        int l = large[--largeSize];
+        probabilities[s] = scaled[s];
+        aliases[s] = l;
+        scaled[l] = (scaled[l] + scaled[s]) - 1D;
+        if (scaled[l] < 1D) {
+          small[smallSize++] = l;
+        } else {
+          large[largeSize++] = l;
+        }
+      }
+      // Remaining entries are (up to rounding errors) full columns
+      while (largeSize > 0) {
+        int l = large[--largeSize];
+        probabilities[l] = 1D;
+        aliases[l] = l;
+      }
+      while (smallSize > 0) {
+        int s = small[--smallSize];
+        probabilities[s] = 1D;
+        aliases[s] = s;
+      }
+      this.servers = servers;
+      this.probabilities = probabilities;
+      this.aliases = aliases;
+    }
+
+    @Override
+    public int select() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int column = random.nextInt(servers.length);
+      return servers[random.nextDouble() < probabilities[column] ? column : aliases[column]];
+    }
+  }
+}
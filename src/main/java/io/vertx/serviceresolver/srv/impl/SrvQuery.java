@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.srv.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.dns.SrvRecord;
+import io.vertx.serviceresolver.impl.EndpointSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SRV query of a name, shared by all the service states resolving this name.
+ *
+ * Concurrent lookups are coalesced into a single DNS query and a single timer refreshes the records in the background
+ * when they expire, meanwhile the last records are served. When the resolver has a stale window, expired records keep
+ * being served while a failed refresh is retried with a backoff, until the window elapses.
+ *
+ * When the resolver has an endpoint snapshot, the name is served from the snapshot until the first lookup completes.
+ * A failed lookup is then retried with a backoff while the snapshot keeps being served.
+ */
+class SrvQuery<B> {
+
+  static final long INITIAL_RETRY_DELAY = 500;
+  static final int MAX_RETRIES = 5;
+  static final long MAX_RETRY_DELAY = 30_000;
+
+  final SrvResolverImpl<B> resolver;
+  final String name;
+  private final List<SrvServiceState<B>> states = new ArrayList<>();
+  // Read without the lock when the endpoints are accessed
+  private volatile List<SrvRecord> records;
+  private volatile Future<List<SrvRecord>> lookup;
+  private volatile long timerID = -1L;
+  private volatile boolean valid = true;
+  private boolean closed;
+  private volatile long expiresAt;
+  private volatile long staleUntil;
+  private int failures;
+  private boolean restored;
+
+  SrvQuery(SrvResolverImpl<B> resolver, String name) {
+    this.resolver = resolver;
+    this.name = name;
+  }
+
+  /**
+   * Subscribe a state to the records of this query, the state is updated with the current records or with the
+   * records of the lookup in progress.
+   *
+   * @return the future signaling the state is updated or {@code null} when the query is closed
+   */
+  Future<SrvServiceState<B>> subscribe(SrvServiceState<B> state) {
+    List<SrvRecord> current;
+    Future<List<SrvRecord>> fut;
+    synchronized (this) {
+      if (closed || !valid) {
+        return null;
+      }
+      states.add(state);
+      if (records == null) {
+        List<SrvRecord> snapshot = snapshot();
+        if (snapshot != null) {
+          restored = true;
+          if (lookup == null && timerID < 0L) {
+            // Otherwise the lookup in progress or the retry timer updates the state
+            lookup();
+          }
+          if (records == null) {
+            // Serve the snapshot until a lookup succeeds, the records will update the state
+            state.update(snapshot);
+            return Future.succeededFuture(state);
+          }
+        }
+      }
+      current = records;
+      fut = current == null ? lookup() : null;
+    }
+    if (current != null) {
+      state.update(current);
+      return Future.succeededFuture(state);
+    }
+    return fut.map(v -> state);
+  }
+
+  private List<SrvRecord> snapshot() {
+    List<EndpointSnapshot.Server> servers = resolver.snapshot != null ? resolver.snapshot.get(name) : null;
+    if (servers == null) {
+      return null;
+    }
+    List<SrvRecord> records = new ArrayList<>(servers.size());
+    for (EndpointSnapshot.Server server : servers) {
+      records.add(new SnapshotRecord(name, server));
+    }
+    return records;
+  }
+
+  /**
+   * @return the last records received or {@code null} when no lookup succeeded yet
+   */
+  List<SrvRecord> records() {
+    return records;
+  }
+
+  void unsubscribe(SrvServiceState<B> state) {
+    synchronized (this) {
+      if (!states.remove(state) || !states.isEmpty()) {
+        return;
+      }
+    }
+    // Nobody is interested anymore
+    close();
+  }
+
+  boolean isValid() {
+    return valid && (lookup != null || timerID >= 0L || System.currentTimeMillis() < staleUntil);
+  }
+
+  /**
+   * Records with a zero TTL are revalidated when they are used, the lock is only acquired when a revalidation is due.
+   */
+  void revalidate() {
+    if (lookup != null || timerID >= 0L || System.currentTimeMillis() < expiresAt) {
+      // Refreshed in the background or not yet expired
+      return;
+    }
+    synchronized (this) {
+      if (records == null || !valid || closed || lookup != null || timerID >= 0L || System.currentTimeMillis() < expiresAt) {
+        return;
+      }
+      lookup();
+    }
+  }
+
+  private Future<List<SrvRecord>> lookup() {
+    Future<List<SrvRecord>> fut = lookup;
+    if (fut == null) {
+      long start = System.nanoTime();
+      fut = resolver.client
+        .resolveSRV(name)
+        .andThen(ar -> resolver.metrics.srvQueryCompleted(name, System.nanoTime() - start, ar.succeeded()))
+        .compose(list -> resolver.resolveTargets(list).map(list));
+      lookup = fut;
+      fut.onComplete(ar -> {
+        if (ar.succeeded()) {
+          handleRecords(ar.result());
+        } else {
+          handleFailure();
+        }
+      });
+    }
+    return fut;
+  }
+
+  private void handleRecords(List<SrvRecord> list) {
+    // An empty response is not cached
+    long ttl = list.isEmpty() ? 0L : Long.MAX_VALUE;
+    for (SrvRecord record : list) {
+      ttl = Math.min(ttl, record.ttl());
+    }
+    resolver.metrics.srvRecordsReceived(name, list.size(), ttl);
+    ttl = resolver.ttl(ttl);
+    long now = System.currentTimeMillis();
+    List<SrvServiceState<B>> subscribers;
+    synchronized (this) {
+      if (closed) {
+        lookup = null;
+        return;
+      }
+      records = list;
+      failures = 0;
+      expiresAt = now + ttl;
+      staleUntil = expiresAt + resolver.staleTTL;
+      if (ttl > 0) {
+        schedule(ttl);
+      } else if (resolver.staleTTL == 0) {
+        invalidate();
+      }
+      // Cleared last, the query must not look invalid without the lock in the meantime
+      lookup = null;
+      subscribers = new ArrayList<>(states);
+    }
+    for (SrvServiceState<B> state : subscribers) {
+      state.update(list);
+    }
+    if (resolver.snapshot != null) {
+      List<EndpointSnapshot.Server> servers = new ArrayList<>(list.size());
+      for (SrvRecord record : list) {
+        servers.add(new EndpointSnapshot.Server(record.target(), record.port(), record.priority(), record.weight()));
+      }
+      resolver.snapshot.put(name, servers);
+    }
+  }
+
+  private void handleFailure() {
+    long now = System.currentTimeMillis();
+    synchronized (this) {
+      if (closed) {
+        lookup = null;
+        return;
+      }
+      if (records == null && restored) {
+        // Served from the snapshot, keep serving it until a lookup succeeds
+        schedule(Math.min(INITIAL_RETRY_DELAY << Math.min(failures++, 16), MAX_RETRY_DELAY));
+      } else if (records == null) {
+        // Initial resolution, the failure is reported to the subscribers
+        states.clear();
+        invalidate();
+      } else if (now < staleUntil && failures < MAX_RETRIES) {
+        long delay = Math.min(INITIAL_RETRY_DELAY << failures++, staleUntil - now);
+        schedule(delay);
+      } else {
+        invalidate();
+      }
+      lookup = null;
+    }
+  }
+
+  private void schedule(long delay) {
+    timerID = resolver.vertx.setTimer(delay, id -> {
+      synchronized (SrvQuery.this) {
+        if (timerID != id) {
+          return;
+        }
+        if (!closed) {
+          lookup();
+        }
+        if (timerID == id) {
+          // Cleared once the lookup is in progress, unless a failed lookup scheduled a retry
+          timerID = -1L;
+        }
+      }
+    });
+  }
+
+  /**
+   * Invalidate the query, the subscribed states become invalid and the next resolution uses a new query.
+   */
+  private void invalidate() {
+    valid = false;
+    resolver.removeQuery(this);
+  }
+
+  void close() {
+    long id;
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      id = timerID;
+      timerID = -1L;
+    }
+    resolver.removeQuery(this);
+    if (id >= 0) {
+      resolver.vertx.cancelTimer(id);
+    }
+  }
+}
@@ -19,20 +19,136 @@ import io.vertx.core.net.SocketAddress;
 import io.vertx.core.spi.endpoint.EndpointBuilder;
 import io.vertx.core.spi.endpoint.EndpointResolver;
 import io.vertx.serviceresolver.ServiceAddress;
+import io.vertx.serviceresolver.ServiceResolverMetrics;
+import io.vertx.serviceresolver.impl.EndpointSnapshot;
 import io.vertx.serviceresolver.srv.SrvResolverOptions;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
 public class SrvResolverImpl<B> implements EndpointResolver<ServiceAddress, SrvRecord, SrvServiceState<B>, B> {
 
   Vertx vertx;
   DnsClient client;
   final SocketAddress server;
-  final int minTTL;
+  final long minTTL;
+  final long maxTTL;
+  final double ttlJitter;
+  final long staleTTL;
+  final boolean resolveTargets;
+  final ServiceResolverMetrics metrics;
+  final EndpointSnapshot snapshot;
+  private final ConcurrentMap<String, SrvQuery<B>> queries = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ResolvedTarget> targets = new ConcurrentHashMap<>();
 
   public SrvResolverImpl(Vertx vertx, SrvResolverOptions options) {
     this.server = options.getServer();
     this.vertx = vertx;
     this.client = vertx.createDnsClient(server.port(), server.host());
-    this.minTTL = options.getMinTTL();
+    this.minTTL = options.getMinTTLUnit().toMillis(options.getMinTTL());
+    this.maxTTL = options.getMaxTTLUnit().toMillis(options.getMaxTTL());
+    this.ttlJitter = options.getTtlJitter();
+    this.staleTTL = options.getStaleTTLUnit().toMillis(options.getStaleTTL());
+    this.resolveTargets = options.isResolveTargets();
+    this.metrics = options.getMetrics() != null ? options.getMetrics() : ServiceResolverMetrics.NOOP;
+    this.snapshot = EndpointSnapshot.create(vertx, options.getSnapshotPath(), options.getSnapshotInterval());
+  }
+
+  /**
+   * A target host name resolved to an IP address.
+   */
+  private static class ResolvedTarget {
+
+    final InetAddress address;
+    final long expiresAt;
+
+    ResolvedTarget(InetAddress address, long expiresAt) {
+      this.address = address;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * Resolve the target host names of the {@code records} that are not cached, the returned future never fails.
+   */
+  Future<Void> resolveTargets(List<SrvRecord> records) {
+    if (!resolveTargets) {
+      return Future.succeededFuture();
+    }
+    long now = System.currentTimeMillis();
+    if (targets.values().stream().anyMatch(target -> target.expiresAt <= now)) {
+      pruneTargets(records, now);
+    }
+    Set<String> names = new HashSet<>();
+    List<Future<?>> lookups = new ArrayList<>();
+    for (SrvRecord record : records) {
+      String name = record.target();
+      if (!names.add(name)) {
+        continue;
+      }
+      ResolvedTarget cached = targets.get(name);
+      if (cached != null && now < cached.expiresAt) {
+        continue;
+      }
+      // The address records TTL is not exposed by the DNS client, the SRV record TTL is used instead
+      long ttl = ttl(record.ttl());
+      lookups.add(client.lookup(name).andThen(ar -> {
+        if (ar.succeeded() && ar.result() != null) {
+          try {
+            InetAddress address = InetAddress.getByAddress(name, InetAddress.getByName(ar.result()).getAddress());
+            targets.put(name, new ResolvedTarget(address, now + ttl));
+          } catch (UnknownHostException ignore) {
+          }
+        }
+      }));
+    }
+    if (lookups.isEmpty()) {
+      return Future.succeededFuture();
+    }
+    return Future.join(lookups).transform(ar -> Future.<Void>succeededFuture());
+  }
+
+  /**
+   * Forget the expired targets no current record refers to, an expired target still in use is kept until a lookup
+   * replaces it so its services keep being served with the last resolved address.
+   */
+  private void pruneTargets(List<SrvRecord> records, long now) {
+    Set<String> used = new HashSet<>();
+    for (SrvRecord record : records) {
+      used.add(record.target());
+    }
+    for (SrvQuery<B> query : queries.values()) {
+      List<SrvRecord> current = query.records();
+      if (current != null) {
+        for (SrvRecord record : current) {
+          used.add(record.target());
+        }
+      }
+    }
+    targets.entrySet().removeIf(entry -> entry.getValue().expiresAt <= now && !used.contains(entry.getKey()));
+  }
+
+  /**
+   * Compute the amount of time a DNS response is cached.
+   *
+   * @param ttl the TTL of the response in seconds
+   * @return the amount of time in milliseconds
+   */
+  long ttl(long ttl) {
+    long millis = Math.min(Math.max(ttl * 1000, minTTL), maxTTL);
+    if (millis > 0 && ttlJitter > 0D) {
+      // Refresh earlier, never later
+      millis -= ThreadLocalRandom.current().nextLong((long) (millis * ttlJitter) + 1);
+    }
+    return millis;
   }
 
   @Override
@@ -42,10 +158,23 @@ public class SrvResolverImpl<B> implements EndpointResolver<ServiceAddress, SrvR
 
   @Override
   public Future<SrvServiceState<B>> resolve(ServiceAddress address, EndpointBuilder<B, SrvRecord> builder) {
-    SrvServiceState<B> state = new SrvServiceState<>(this, builder, address);
-    return state
-      .refresh()
-      .map(state);
+    if (snapshot != null && !snapshot.loaded().isComplete()) {
+      return snapshot.loaded().compose(v -> resolve(address, builder));
+    }
+    long start = System.nanoTime();
+    while (true) {
+      SrvQuery<B> query = queries.computeIfAbsent(address.name(), name -> new SrvQuery<>(this, name));
+      Future<SrvServiceState<B>> fut = query.subscribe(new SrvServiceState<>(query, builder, address));
+      if (fut != null) {
+        return fut.andThen(ar -> metrics.resolveCompleted(address, System.nanoTime() - start, ar.succeeded()));
+      }
+      // The query was closed in the meantime
+      removeQuery(query);
+    }
+  }
+
+  void removeQuery(SrvQuery<B> query) {
+    queries.remove(query.name, query);
   }
 
   @Override
@@ -55,6 +184,10 @@ public class SrvResolverImpl<B> implements EndpointResolver<ServiceAddress, SrvR
 
   @Override
   public SocketAddress addressOf(SrvRecord record) {
+    ResolvedTarget target = resolveTargets ? targets.get(record.target()) : null;
+    if (target != null) {
+      return SocketAddress.inetSocketAddress(new InetSocketAddress(target.address, record.port()));
+    }
     return SocketAddress.inetSocketAddress(record.port(), record.target());
   }
 
@@ -70,5 +203,9 @@ public class SrvResolverImpl<B> implements EndpointResolver<ServiceAddress, SrvR
 
   @Override
   public void close() {
+    queries.values().forEach(SrvQuery::close);
+    if (snapshot != null) {
+      snapshot.close();
+    }
   }
 }
@@ -10,82 +10,54 @@
  */
 package io.vertx.serviceresolver.srv.impl;
 
-import io.vertx.core.Future;
 import io.vertx.core.dns.SrvRecord;
 import io.vertx.core.spi.endpoint.EndpointBuilder;
 import io.vertx.serviceresolver.ServiceAddress;
 
 import java.util.List;
 
+/**
+ * The state of a service resolved with SRV records, the records are provided by the {@link SrvQuery} of the
+ * service name.
+ */
 class SrvServiceState<B> {
 
   final ServiceAddress address;
-  final SrvResolverImpl<B> resolver;
+  final SrvQuery<B> query;
   final EndpointBuilder<B, SrvRecord> builder;
-  private B endpoints;
-  private long timerID;
-  private boolean disposed;
-  private boolean valid;
+  private volatile B endpoints;
 
-  public SrvServiceState(SrvResolverImpl<B> resolve, EndpointBuilder<B, SrvRecord> builder, ServiceAddress address) {
-    this.resolver = resolve;
+  SrvServiceState(SrvQuery<B> query, EndpointBuilder<B, SrvRecord> builder, ServiceAddress address) {
+    this.query = query;
     this.address = address;
     this.builder = builder;
-    this.timerID = -1L;
-    this.valid = true;
   }
 
-  synchronized B endpoints() {
+  B endpoints() {
+    query.revalidate();
     return endpoints;
   }
 
-  synchronized boolean isValid() {
-    return valid;
+  boolean isValid() {
+    return query.isValid();
+  }
+
+  void update(List<SrvRecord> records) {
+    endpoints = buildEndpoints(builder, records);
+    query.resolver.metrics.endpointsUpdated(address, records.size());
   }
 
-  Future<?> refresh() {
-    synchronized (this) {
-      if (disposed || timerID >= 0L) {
-        return null;
-      }
-      Future<List<SrvRecord>> fut = resolver.client.resolveSRV(address.name());
-      return fut.andThen(ar -> {
-        if (ar.succeeded()) {
-          List<SrvRecord> records = ar.result();
-          long ttl = Long.MAX_VALUE;
-          EndpointBuilder<B, SrvRecord> tmp = builder;
-          for (SrvRecord record : records) {
-            tmp = tmp.addServer(record, record.target() + "-" + record.port());
-            ttl = Math.min(ttl, record.ttl());
-          }
-          synchronized (SrvServiceState.this) {
-            endpoints = tmp.build();
-          }
-          ttl = Math.max(ttl, resolver.minTTL);
-          if (ttl > 0) {
-            timerID = resolver.vertx.setTimer(ttl * 1000, id -> {
-              synchronized (SrvServiceState.this) {
-                timerID = -1;
-              }
-              refresh();
-            });
-          } else {
-            valid = false;
-          }
-        }
-      });
+  /**
+   * Build the endpoints of a service from its SRV records.
+   */
+  static <B> B buildEndpoints(EndpointBuilder<B, SrvRecord> builder, List<SrvRecord> records) {
+    for (SrvRecord record : records) {
+      builder = builder.addServer(record, record.target() + "-" + record.port());
     }
+    return builder.build();
   }
 
   void dispose() {
-    long id;
-    synchronized (this) {
-      id = timerID;
-      timerID = -1L;
-      disposed = true;
-    }
-    if (id >= 0) {
-      resolver.vertx.cancelTimer(id);
-    }
+    query.unsubscribe(this);
   }
 }
@@ -1,5 +1,6 @@
 module io.vertx.serviceresolver {
   requires transitive io.vertx.core;
+  requires com.fasterxml.jackson.core;
   requires static io.vertx.codegen.api;
   requires static io.vertx.codegen.json;
   requires static io.vertx.docgen;
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver;
+
+import io.vertx.core.spi.endpoint.EndpointBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A persistent endpoint builder building a plain list of servers, it stands in for the builder of the load balancer.
+ */
+public final class ListEndpointBuilder<S> implements EndpointBuilder<List<S>, S> {
+
+  public static <S> ListEndpointBuilder<S> create() {
+    return new ListEndpointBuilder<>(null, null);
+  }
+
+  private final ListEndpointBuilder<S> previous;
+  private final S server;
+
+  private ListEndpointBuilder(ListEndpointBuilder<S> previous, S server) {
+    this.previous = previous;
+    this.server = server;
+  }
+
+  @Override
+  public EndpointBuilder<List<S>, S> addServer(S server, String key) {
+    return new ListEndpointBuilder<>(this, server);
+  }
+
+  @Override
+  public List<S> build() {
+    List<S> list = new ArrayList<>();
+    for (ListEndpointBuilder<S> builder = this;builder.previous != null;builder = builder.previous) {
+      list.add(builder.server);
+    }
+    Collections.reverse(list);
+    return list;
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.internal.VertxInternal;
+import io.vertx.core.internal.net.endpoint.EndpointResolverInternal;
+import io.vertx.core.net.Address;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.core.net.endpoint.Endpoint;
+import io.vertx.core.net.endpoint.LoadBalancer;
+import io.vertx.core.net.endpoint.ServerEndpoint;
+import io.vertx.core.spi.endpoint.EndpointBuilder;
+import io.vertx.core.spi.endpoint.EndpointResolver;
+import io.vertx.serviceresolver.ServiceAddress;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolve an endpoint from the client cache and select a server, from several threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ResolveEndpointBenchmark {
+
+  /**
+   * A resolver serving a fixed set of servers for any service.
+   */
+  static class StaticResolver<B> implements EndpointResolver<ServiceAddress, SocketAddress, B, B> {
+
+    final int servers;
+
+    StaticResolver(int servers) {
+      this.servers = servers;
+    }
+
+    @Override
+    public ServiceAddress tryCast(Address address) {
+      return address instanceof ServiceAddress ? (ServiceAddress) address : null;
+    }
+
+    @Override
+    public SocketAddress addressOf(SocketAddress server) {
+      return server;
+    }
+
+    @Override
+    public Future<B> resolve(ServiceAddress address, EndpointBuilder<B, SocketAddress> builder) {
+      for (int i = 0;i < servers;i++) {
+        SocketAddress server = SocketAddress.inetSocketAddress(8080, "10.0.0." + i);
+        builder = builder.addServer(server, server.host() + "-" + server.port());
+      }
+      return Future.succeededFuture(builder.build());
+    }
+
+    @Override
+    public B endpoint(B state) {
+      return state;
+    }
+
+    @Override
+    public boolean isValid(B state) {
+      return true;
+    }
+
+    @Override
+    public void dispose(B state) {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  @Param({ "1", "64" })
+  public int services;
+
+  @Param({ "3", "30" })
+  public int servers;
+
+  private Vertx vertx;
+  private ServiceResolverClientImpl client;
+  private ServiceAddress[] addresses;
+
+  @Setup
+  public void setup() throws Exception {
+    vertx = Vertx.vertx();
+    EndpointResolverInternal resolver = EndpointResolverInternal.create((VertxInternal) vertx, new StaticResolver<>(servers), LoadBalancer.ROUND_ROBIN, 1000);
+    client = new ServiceResolverClientImpl(vertx, resolver);
+    client.init();
+    addresses = new ServiceAddress[services];
+    for (int i = 0;i < services;i++) {
+      addresses[i] = ServiceAddress.of("svc-" + i);
+      client.resolveEndpoint(addresses[i]).toCompletionStage().toCompletableFuture().get();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    client.close();
+    vertx.close().toCompletionStage().toCompletableFuture().get();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public ServerEndpoint resolveAndSelect() throws Exception {
+    ServiceAddress address = addresses[ThreadLocalRandom.current().nextInt(addresses.length)];
+    Future<Endpoint> fut = client.resolveEndpoint(address);
+    Endpoint endpoint = fut.isComplete() ? fut.result() : fut.toCompletionStage().toCompletableFuture().get();
+    return endpoint.selectServer();
+  }
+}
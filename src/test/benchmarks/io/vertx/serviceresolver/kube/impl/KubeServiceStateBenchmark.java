@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import io.vertx.serviceresolver.ListEndpointBuilder;
+import io.vertx.serviceresolver.ServiceAddress;
+import io.vertx.serviceresolver.ServiceResolverMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Update the endpoints of a service from its resources, with and without changes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class KubeServiceStateBenchmark {
+
+  @Param({ "10", "100", "1000" })
+  public int addresses;
+
+  private KubeServiceState<List<KubeServer>> state;
+  private List<KubeResource> resources;
+  private List<KubeResource> changed;
+  private boolean flip;
+
+  @Setup
+  public void setup() {
+    state = new KubeServiceState<>(null, ListEndpointBuilder.create(), ServiceAddress.of("svc"), "svc", ServiceResolverMetrics.NOOP, null, null, 0L, false, null);
+    resources = resources(addresses);
+    // One address moved
+    changed = resources(addresses - 1);
+    changed.get(0).subsets.get(0).endpoints.add(KubeResource.Endpoint.ready("10.1.0.0", null));
+    state.updateEndpoints(resources);
+  }
+
+  private static List<KubeResource> resources(int size) {
+    List<KubeResource.Endpoint> endpoints = new ArrayList<>();
+    for (int i = 0;i < size;i++) {
+      endpoints.add(KubeResource.Endpoint.ready("10.0." + (i >> 8) + "." + (i & 0xFF), null));
+    }
+    List<KubeResource.Port> ports = Collections.singletonList(new KubeResource.Port("http", 8080));
+    List<KubeResource> list = new ArrayList<>();
+    list.add(new KubeResource("svc", "default", "svc", new ArrayList<>(Collections.singletonList(new KubeResource.Subset(ports, endpoints)))));
+    return list;
+  }
+
+  @Benchmark
+  public List<KubeServer> unchanged() {
+    state.updateEndpoints(resources);
+    return state.endpoints.get();
+  }
+
+  @Benchmark
+  public List<KubeServer> changed() {
+    flip = !flip;
+    state.updateEndpoints(flip ? changed : resources);
+    return state.endpoints.get();
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.kube.impl;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.serviceresolver.ListEndpointBuilder;
+import io.vertx.serviceresolver.ServiceAddress;
+import io.vertx.serviceresolver.kube.KubeResolverOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process watch events and list responses for namespaces of varying sizes, a fake API server serves the list
+ * and pushes the watch events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class KubeWatchBenchmark {
+
+  @Param({ "100", "1000", "10000" })
+  public int services;
+
+  private Vertx vertx;
+  private HttpServer server;
+  private KubeResolverImpl<List<KubeServer>> resolver;
+  private KubeServiceState<List<KubeServer>> state;
+  private volatile ServerWebSocket webSocket;
+  private Buffer list;
+  private Buffer[] events;
+  private int next;
+
+  @Setup
+  public void setup() throws Exception {
+    JsonArray items = new JsonArray();
+    for (int i = 0;i < services;i++) {
+      items.add(endpoints("svc-" + i, "10.0." + (i >> 8) + "." + (i & 0xFF), "" + i));
+    }
+    list = new JsonObject()
+      .put("kind", "EndpointsList")
+      .put("apiVersion", "v1")
+      .put("metadata", new JsonObject().put("resourceVersion", "" + services))
+      .put("items", items)
+      .toBuffer();
+    events = new Buffer[] { event("10.1.0.1"), event("10.1.0.2") };
+    vertx = Vertx.vertx();
+    server = vertx.createHttpServer().requestHandler(req -> {
+      if (req.canUpgradeToWebSocket()) {
+        req.toWebSocket().onSuccess(ws -> webSocket = ws);
+      } else {
+        req.response().putHeader("Content-Type", "application/json").end(list);
+      }
+    });
+    server.listen(0, "localhost").toCompletionStage().toCompletableFuture().get();
+    KubeResolverOptions options = new KubeResolverOptions()
+      .setServer(SocketAddress.inetSocketAddress(server.actualPort(), "localhost"))
+      .setNamespace("ns")
+      .setListPageSize(0);
+    resolver = new KubeResolverImpl<>(vertx, null, options);
+    state = resolver.resolve(ServiceAddress.of("svc-0"), ListEndpointBuilder.create()).toCompletionStage().toCompletableFuture().get();
+    while (webSocket == null) {
+      Thread.sleep(1);
+    }
+  }
+
+  private static JsonObject endpoints(String name, String ip, String resourceVersion) {
+    return new JsonObject()
+      .put("kind", "Endpoints")
+      .put("apiVersion", "v1")
+      .put("metadata", new JsonObject()
+        .put("name", name)
+        .put("namespace", "ns")
+        .put("resourceVersion", resourceVersion)
+        .put("labels", new JsonObject().put("app", name)))
+      .put("subsets", new JsonArray().add(new JsonObject()
+        .put("addresses", new JsonArray().add(new JsonObject().put("ip", ip).put("nodeName", "node")))
+        .put("ports", new JsonArray().add(new JsonObject().put("name", "http").put("port", 8080).put("protocol", "TCP")))));
+  }
+
+  private Buffer event(String ip) {
+    return new JsonObject()
+      .put("type", "MODIFIED")
+      .put("object", endpoints("svc-0", ip, "" + services))
+      .toBuffer();
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    resolver.close();
+    vertx.close().toCompletionStage().toCompletableFuture().get();
+  }
+
+  /**
+   * Push a watch event for the resolved service and wait until its endpoints are updated.
+   */
+  @Benchmark
+  public List<KubeServer> watchEvent() {
+    List<KubeServer> current = state.endpoints.get();
+    webSocket.writeTextMessage(events[next++ & 1].toString());
+    List<KubeServer> updated;
+    while ((updated = state.endpoints.get()) == current) {
+      Thread.onSpinWait();
+    }
+    return updated;
+  }
+
+  @Benchmark
+  public KubeBackend.ResourceList parseList() {
+    return resolver.backend.parseList(list);
+  }
+
+  @Benchmark
+  public KubeBackend.WatchEvent parseEvent() {
+    return resolver.backend.parseEvent(events[next++ & 1]);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2011-2025 Contributors to the Eclipse Foundation
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+ * which is available at https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+ */
+package io.vertx.serviceresolver.srv.impl;
+
+import io.vertx.core.dns.SrvRecord;
+import io.vertx.serviceresolver.ListEndpointBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuild the endpoints of a service from its SRV records.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class SrvServiceStateBenchmark {
+
+  static class Record implements SrvRecord {
+
+    private final int priority;
+    private final int weight;
+    private final int port;
+    private final String target;
+
+    Record(int priority, int weight, int port, String target) {
+      this.priority = priority;
+      this.weight = weight;
+      this.port = port;
+      this.target = target;
+    }
+
+    @Override
+    public int priority() {
+      return priority;
+    }
+
+    @Override
+    public int weight() {
+      return weight;
+    }
+
+    @Override
+    public int port() {
+      return port;
+    }
+
+    @Override
+    public String name() {
+      return "_http._tcp.svc.example.com";
+    }
+
+    @Override
+    public String protocol() {
+      return "_tcp";
+    }
+
+    @Override
+    public String service() {
+      return "_http";
+    }
+
+    @Override
+    public String target() {
+      return target;
+    }
+
+    @Override
+    public long ttl() {
+      return 30;
+    }
+  }
+
+  @Param({ "3", "30", "300" })
+  public int records;
+
+  private ListEndpointBuilder<SrvRecord> builder;
+  private List<SrvRecord> list;
+
+  @Setup
+  public void setup() {
+    builder = ListEndpointBuilder.create();
+    list = new ArrayList<>();
+    for (int i = 0;i < records;i++) {
+      list.add(new Record(i % 3, 10, 8080, "host-" + i + ".example.com"));
+    }
+  }
+
+  @Benchmark
+  public List<SrvRecord> rebuild() {
+    return SrvServiceState.buildEndpoints(builder, list);
+  }
+}
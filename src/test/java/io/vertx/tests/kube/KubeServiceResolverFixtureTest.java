@@ -0,0 +1,430 @@
+package io.vertx.tests.kube;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.http.WebSocketClientOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.AddressResolver;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.core.net.endpoint.Endpoint;
+import io.vertx.core.net.endpoint.ServerEndpoint;
+import io.vertx.serviceresolver.ServiceAddress;
+import io.vertx.serviceresolver.ServiceResolverClient;
+import io.vertx.serviceresolver.kube.KubeEndpointsApi;
+import io.vertx.serviceresolver.kube.KubeResolver;
+import io.vertx.serviceresolver.kube.KubeResolverOptions;
+import io.vertx.serviceresolver.kube.KubeTopologyMode;
+import io.vertx.serviceresolver.kube.impl.KubeServer;
+import io.vertx.tests.ServiceResolverTestBase;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the resolver against an API server serving raw payloads, e.g. protobuf encoded resources.
+ */
+public class KubeServiceResolverFixtureTest extends ServiceResolverTestBase {
+
+  private static final String PROTOBUF = "application/vnd.kubernetes.protobuf";
+
+  private HttpServer apiServer;
+  private volatile Handler<HttpServerRequest> listHandler;
+  private final List<String> requests = new CopyOnWriteArrayList<>();
+  private final List<ServerWebSocket> watches = new CopyOnWriteArrayList<>();
+  private KubeResolverOptions options;
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    apiServer = vertx.createHttpServer()
+      .requestHandler(req -> {
+        requests.add(req.uri());
+        listHandler.handle(req);
+      })
+      .webSocketHandler(watches::add);
+    apiServer
+      .listen(1234, "localhost")
+      .await(20, TimeUnit.SECONDS);
+    options = new KubeResolverOptions()
+      .setNamespace("default")
+      .setServer(SocketAddress.inetSocketAddress(1234, "localhost"))
+      .setHttpClientOptions(new HttpClientOptions().setSsl(false))
+      .setWebSocketClientOptions(new WebSocketClientOptions().setSsl(false));
+  }
+
+  @Override
+  protected AddressResolver<?> resolver() {
+    return KubeResolver.create(options);
+  }
+
+  @Test
+  public void testProtobufEndpoints() throws Exception {
+    options.setProtobuf(true);
+    ProtoMessage list = new ProtoMessage()
+      .message(1, new ProtoMessage()
+        .string(2, "10"))
+      .message(2, endpoints("svc", "8", new ProtoMessage()
+        .message(1, address("10.0.0.1", "node-1"))
+        .message(1, address("10.0.0.2", null))
+        .message(2, address("10.0.0.3", "node-3"))
+        .message(3, new ProtoMessage()
+          .string(1, "http")
+          .varint(2, 8080)
+          .string(3, "TCP"))))
+      .message(2, endpoints("other", "9", new ProtoMessage()
+        .message(1, address("10.0.1.1", null))
+        .message(3, new ProtoMessage()
+          .varint(2, 9090))));
+    listHandler = req -> req.response()
+      .putHeader("Content-Type", PROTOBUF)
+      .end(ProtoMessage.envelope("v1", "EndpointsList", list));
+    ServiceResolverClient client = ServiceResolverClient.create(vertx, options);
+    ServiceAddress svc = ServiceAddress.of("svc");
+    ServiceAddress other = ServiceAddress.of("other");
+    Endpoint endpoint = client.resolveEndpoint(svc).await(20, TimeUnit.SECONDS);
+    assertEquals(Set.of("10.0.0.1:8080", "10.0.0.2:8080"), servers(endpoint));
+    assertEquals("node-1", ((KubeServer) endpoint.servers().get(0).unwrap()).nodeName());
+    assertEquals(Set.of("10.0.1.1:9090"), servers(client.resolveEndpoint(other).await(20, TimeUnit.SECONDS)));
+    assertTrue(requests.get(0).startsWith("/api/v1/namespaces/default/endpoints"));
+    assertWaitUntil(() -> watches.size() == 1);
+    ServerWebSocket watch = watches.get(0);
+    assertTrue(watch.uri().contains("resourceVersion=10"));
+
+    // Watch event in a runtime.Unknown envelope, the object is enveloped as well
+    ProtoMessage modified = watchEvent("MODIFIED", ProtoMessage.envelope("v1", "Endpoints", endpoints("svc", "11", new ProtoMessage()
+      .message(1, address("10.0.0.4", null))
+      .message(3, new ProtoMessage()
+        .string(1, "http")
+        .varint(2, 8080)))));
+    watch.writeBinaryMessage(ProtoMessage.envelope("meta.k8s.io/v1", "WatchEvent", modified));
+    assertWaitUntil(() -> servers(client.resolveEndpoint(svc).await(20, TimeUnit.SECONDS)).equals(Set.of("10.0.0.4:8080")));
+
+    // Watch event in a length prefixed frame
+    Buffer framed = watchEvent("MODIFIED", ProtoMessage.envelope("v1", "Endpoints", endpoints("other", "12", new ProtoMessage()
+      .message(1, address("10.0.1.2", null))
+      .message(3, new ProtoMessage()
+        .varint(2, 9091))))).toBuffer();
+    watch.writeBinaryMessage(Buffer.buffer().appendInt(framed.length()).appendBuffer(framed));
+    assertWaitUntil(() -> servers(client.resolveEndpoint(other).await(20, TimeUnit.SECONDS)).equals(Set.of("10.0.1.2:9091")));
+    client.close();
+  }
+
+  @Test
+  public void testProtobufEndpointSlices() throws Exception {
+    options
+      .setProtobuf(true)
+      .setEndpointsApi(KubeEndpointsApi.ENDPOINT_SLICES)
+      .setTopologyMode(KubeTopologyMode.PREFER_ZONE)
+      .setZone("zone-a");
+    ProtoMessage slice = new ProtoMessage()
+      .message(1, metadata("svc-1", "7"))
+      .message(2, new ProtoMessage()
+        .string(1, "10.0.0.1")
+        .string(1, "10.0.0.11")
+        .message(2, conditions(true, true, false))
+        .string(3, "pod-1")
+        .string(6, "node-1")
+        .string(7, "zone-a")
+        .message(8, hints("zone-b")))
+      .message(2, new ProtoMessage()
+        .string(1, "10.0.0.2")
+        .message(2, conditions(true, true, false))
+        .string(6, "node-2")
+        .string(7, "zone-b")
+        .message(8, hints("zone-a")))
+      .message(2, new ProtoMessage()
+        .string(1, "10.0.0.3")
+        .message(2, conditions(false, true, true))
+        .string(6, "node-3")
+        .string(7, "zone-a")
+        .message(8, hints("zone-a")))
+      .message(3, new ProtoMessage()
+        .string(1, "http")
+        .string(2, "TCP")
+        .varint(3, 8080))
+      .string(4, "IPv4");
+    ProtoMessage list = new ProtoMessage()
+      .message(1, new ProtoMessage()
+        .string(2, "10"))
+      .message(2, slice);
+    listHandler = req -> req.response()
+      .putHeader("Content-Type", PROTOBUF)
+      .end(ProtoMessage.envelope("discovery.k8s.io/v1", "EndpointSliceList", list));
+    ServiceResolverClient client = ServiceResolverClient.create(vertx, options);
+    Endpoint endpoint = client.resolveEndpoint(ServiceAddress.of("svc")).await(20, TimeUnit.SECONDS);
+    // All the ready servers are hinted, the server hinted for the zone of the resolver is selected
+    assertEquals(Set.of("10.0.0.2:8080"), servers(endpoint));
+    KubeServer server = (KubeServer) endpoint.servers().get(0).unwrap();
+    assertEquals("zone-b", server.zone());
+    assertEquals("node-2", server.nodeName());
+    assertFalse(server.isTerminating());
+    assertTrue(requests.get(0).startsWith("/apis/discovery.k8s.io/v1/namespaces/default/endpointslices"));
+    client.close();
+  }
+
+  @Test
+  public void testPaginatedList() throws Exception {
+    options
+      .setEndpointsApi(KubeEndpointsApi.ENDPOINT_SLICES)
+      .setListPageSize(1);
+    AtomicBoolean expired = new AtomicBoolean();
+    listHandler = req -> {
+      String continueToken = req.getParam("continue");
+      JsonObject page;
+      if (continueToken == null) {
+        page = sliceList("10", "page-2", slice("svc-1", "10.0.0.1"));
+      } else if (continueToken.equals("page-2")) {
+        if (expired.compareAndSet(false, true)) {
+          // The continue token expired, the list must be restarted
+          req.response()
+            .setStatusCode(410)
+            .putHeader("Content-Type", "application/json")
+            .end(new JsonObject()
+              .put("kind", "Status")
+              .put("status", "Failure")
+              .put("reason", "Expired")
+              .put("code", 410)
+              .encode());
+          return;
+        }
+        page = sliceList("10", "page-3", slice("svc-2", "10.0.0.2"));
+      } else {
+        page = sliceList("10", null, slice("svc-3", "10.0.0.3"));
+      }
+      req.response()
+        .putHeader("Content-Type", "application/json")
+        .end(page.encode());
+    };
+    ServiceResolverClient client = ServiceResolverClient.create(vertx, options);
+    Endpoint endpoint = client.resolveEndpoint(ServiceAddress.of("svc")).await(20, TimeUnit.SECONDS);
+    assertEquals(Set.of("10.0.0.1:8080", "10.0.0.2:8080", "10.0.0.3:8080"), servers(endpoint));
+    assertEquals(5, requests.size());
+    for (String uri : requests) {
+      assertTrue(uri.contains("limit=1"));
+    }
+    assertFalse(requests.get(0).contains("continue="));
+    assertTrue(requests.get(1).contains("continue=page-2"));
+    // Restarted from the first page
+    assertFalse(requests.get(2).contains("continue="));
+    assertTrue(requests.get(3).contains("continue=page-2"));
+    assertTrue(requests.get(4).contains("continue=page-3"));
+    client.close();
+  }
+
+  @Test
+  public void testUnchangedEndpoints() throws Exception {
+    JsonObject list = new JsonObject()
+      .put("kind", "EndpointsList")
+      .put("apiVersion", "v1")
+      .put("metadata", new JsonObject().put("resourceVersion", "10"))
+      .put("items", new JsonArray()
+        .add(endpoints("svc", "8", 8080, "10.0.0.1", "10.0.0.2", "10.0.0.3"))
+        .add(endpoints("other", "9", 9090, "10.0.1.1")));
+    listHandler = req -> req.response()
+      .putHeader("Content-Type", "application/json")
+      .end(list.encode());
+    ServiceResolverClient client = ServiceResolverClient.create(vertx, options);
+    ServiceAddress svc = ServiceAddress.of("svc");
+    ServiceAddress other = ServiceAddress.of("other");
+    Endpoint endpoint = client.resolveEndpoint(svc).await(20, TimeUnit.SECONDS);
+    client.resolveEndpoint(other).await(20, TimeUnit.SECONDS);
+    List<ServerEndpoint> servers = endpoint.servers();
+    assertEquals(3, servers.size());
+    ServerEndpoint selected = endpoint.selectServer();
+    assertWaitUntil(() -> watches.size() == 1);
+    ServerWebSocket watch = watches.get(0);
+    // The servers of the service are unchanged, only its resource version changed
+    watch.writeTextMessage(new JsonObject()
+      .put("type", "MODIFIED")
+      .put("object", endpoints("svc", "11", 8080, "10.0.0.1", "10.0.0.2", "10.0.0.3"))
+      .encode());
+    watch.writeTextMessage(new JsonObject()
+      .put("type", "MODIFIED")
+      .put("object", endpoints("other", "12", 9090, "10.0.1.2"))
+      .encode());
+    // The events are processed in order
+    assertWaitUntil(() -> servers(client.resolveEndpoint(other).await(20, TimeUnit.SECONDS)).equals(Set.of("10.0.1.2:9090")));
+    Endpoint current = client.resolveEndpoint(svc).await(20, TimeUnit.SECONDS);
+    assertSame(endpoint, current);
+    List<ServerEndpoint> currentServers = current.servers();
+    assertEquals(servers.size(), currentServers.size());
+    for (int i = 0;i < servers.size();i++) {
+      assertSame(servers.get(i), currentServers.get(i));
+    }
+    // The round-robin selection continues where it was
+    assertSame(servers.get((servers.indexOf(selected) + 1) % servers.size()), current.selectServer());
+    client.close();
+  }
+
+  @Test
+  public void testSnapshotOutage() throws Exception {
+    File snapshot = new File(Files.createTempDirectory("vertx").toFile(), "endpoints.snapshot");
+    options.setSnapshotPath(snapshot.getAbsolutePath()).setSnapshotInterval(50);
+    AtomicReference<JsonObject> list = new AtomicReference<>(new JsonObject()
+      .put("kind", "EndpointsList")
+      .put("apiVersion", "v1")
+      .put("metadata", new JsonObject().put("resourceVersion", "10"))
+      .put("items", new JsonArray().add(endpoints("svc", "8", 8080, "10.0.0.1"))));
+    listHandler = req -> {
+      JsonObject body = list.get();
+      if (body == null) {
+        req.response().setStatusCode(503).end();
+      } else {
+        req.response()
+          .putHeader("Content-Type", "application/json")
+          .end(body.encode());
+      }
+    };
+    ServiceAddress svc = ServiceAddress.of("svc");
+    ServiceResolverClient client = ServiceResolverClient.create(vertx, options);
+    assertEquals(Set.of("10.0.0.1:8080"), servers(client.resolveEndpoint(svc).await(20, TimeUnit.SECONDS)));
+    assertWaitUntil(snapshot::exists);
+    client.close();
+    // The API server is down after the restart, the service keeps being served from the snapshot
+    list.set(null);
+    requests.clear();
+    ServiceResolverClient restarted = ServiceResolverClient.create(vertx, options);
+    assertEquals(Set.of("10.0.0.1:8080"), servers(restarted.resolveEndpoint(svc).await(20, TimeUnit.SECONDS)));
+    // The failed list is retried with a backoff
+    assertWaitUntil(() -> requests.size() >= 2);
+    for (int i = 0;i < 10;i++) {
+      assertEquals(Set.of("10.0.0.1:8080"), servers(restarted.resolveEndpoint(svc).await(20, TimeUnit.SECONDS)));
+    }
+    assertTrue(requests.size() < 10);
+    list.set(new JsonObject()
+      .put("kind", "EndpointsList")
+      .put("apiVersion", "v1")
+      .put("metadata", new JsonObject().put("resourceVersion", "11"))
+      .put("items", new JsonArray().add(endpoints("svc", "9", 8080, "10.0.0.2"))));
+    assertWaitUntil(() -> servers(restarted.resolveEndpoint(svc).await(20, TimeUnit.SECONDS)).equals(Set.of("10.0.0.2:8080")));
+    restarted.close();
+  }
+
+  private static JsonObject endpoints(String name, String resourceVersion, int port, String... ips) {
+    JsonArray addresses = new JsonArray();
+    for (String ip : ips) {
+      addresses.add(new JsonObject().put("ip", ip));
+    }
+    return new JsonObject()
+      .put("kind", "Endpoints")
+      .put("apiVersion", "v1")
+      .put("metadata", new JsonObject()
+        .put("name", name)
+        .put("namespace", "default")
+        .put("resourceVersion", resourceVersion))
+      .put("subsets", new JsonArray()
+        .add(new JsonObject()
+          .put("addresses", addresses)
+          .put("ports", new JsonArray()
+            .add(new JsonObject()
+              .put("name", "http")
+              .put("port", port)
+              .put("protocol", "TCP")))));
+  }
+
+  private static JsonObject sliceList(String resourceVersion, String continueToken, JsonObject... items) {
+    JsonObject metadata = new JsonObject().put("resourceVersion", resourceVersion);
+    if (continueToken != null) {
+      metadata.put("continue", continueToken);
+    }
+    return new JsonObject()
+      .put("kind", "EndpointSliceList")
+      .put("apiVersion", "discovery.k8s.io/v1")
+      .put("metadata", metadata)
+      .put("items", new JsonArray(List.of(items)));
+  }
+
+  private static JsonObject slice(String name, String ip) {
+    return new JsonObject()
+      .put("metadata", new JsonObject()
+        .put("name", name)
+        .put("namespace", "default")
+        .put("labels", new JsonObject().put("kubernetes.io/service-name", "svc")))
+      .put("addressType", "IPv4")
+      .put("endpoints", new JsonArray()
+        .add(new JsonObject()
+          .put("addresses", new JsonArray().add(ip))
+          .put("conditions", new JsonObject().put("ready", true))))
+      .put("ports", new JsonArray()
+        .add(new JsonObject()
+          .put("name", "http")
+          .put("port", 8080)
+          .put("protocol", "TCP")));
+  }
+
+  private static ProtoMessage metadata(String name, String resourceVersion) {
+    return new ProtoMessage()
+      .string(1, name)
+      .string(3, "default")
+      .string(5, "7d4c2a1e-" + name)
+      .string(6, resourceVersion)
+      .varint(7, 1)
+      .message(8, new ProtoMessage()
+        .varint(1, 1700000000L))
+      .message(11, new ProtoMessage()
+        .string(1, "kubernetes.io/service-name")
+        .string(2, name.startsWith("svc") ? "svc" : name))
+      .message(11, new ProtoMessage()
+        .string(1, "app")
+        .string(2, name));
+  }
+
+  private static ProtoMessage endpoints(String name, String resourceVersion, ProtoMessage subset) {
+    return new ProtoMessage()
+      .message(1, metadata(name, resourceVersion))
+      .message(2, subset);
+  }
+
+  private static ProtoMessage address(String ip, String nodeName) {
+    ProtoMessage address = new ProtoMessage()
+      .string(1, ip)
+      .message(2, new ProtoMessage()
+        .string(1, "Pod")
+        .string(2, "default")
+        .string(3, "pod-" + ip));
+    return nodeName != null ? address.string(4, nodeName) : address;
+  }
+
+  private static ProtoMessage conditions(boolean ready, boolean serving, boolean terminating) {
+    return new ProtoMessage()
+      .bool(1, ready)
+      .bool(2, serving)
+      .bool(3, terminating);
+  }
+
+  private static ProtoMessage hints(String zone) {
+    return new ProtoMessage()
+      .message(1, new ProtoMessage()
+        .string(1, zone));
+  }
+
+  private static ProtoMessage watchEvent(String type, Buffer object) {
+    return new ProtoMessage()
+      .string(1, type)
+      .message(2, new ProtoMessage()
+        .bytes(1, object));
+  }
+
+  private static Set<String> servers(Endpoint endpoint) {
+    Set<String> servers = new HashSet<>();
+    for (ServerEndpoint server : endpoint.servers()) {
+      servers.add(server.address().host() + ":" + server.address().port());
+    }
+    return servers;
+  }
+}
@@ -5,18 +5,31 @@ import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
 import io.vertx.core.net.*;
+import io.vertx.core.net.endpoint.Endpoint;
+import io.vertx.core.net.endpoint.ServerEndpoint;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.serviceresolver.ServiceAddress;
+import io.vertx.serviceresolver.ServiceResolverClient;
+import io.vertx.serviceresolver.ServiceResolverMetrics;
+import io.vertx.serviceresolver.kube.KubeEndpointsApi;
 import io.vertx.serviceresolver.kube.KubeResolver;
 import io.vertx.serviceresolver.kube.KubeResolverOptions;
+import io.vertx.serviceresolver.kube.KubeTopologyMode;
+import io.vertx.serviceresolver.kube.KubeWatchMode;
+import io.vertx.serviceresolver.kube.impl.KubeServer;
 import io.vertx.serviceresolver.kube.KubernetesServiceAddressBuilder;
 import io.vertx.tests.HttpProxy;
 import io.vertx.tests.ServiceResolverTestBase;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
@@ -191,6 +204,30 @@ public abstract class KubeServiceResolverTestBase extends ServiceResolverTestBas
     assertEquals(3, count.get());
   }
 
+  @Test
+  public void testProactiveTokenRefresh() throws Exception {
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(1, server);
+    ServiceAddress service = ServiceAddress.of("svc");
+    kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    List<String> tokens = Collections.synchronizedList(new ArrayList<>());
+    Client client = client(KubeResolver.create(options).tokenProvider(() -> {
+      // A JWT expiring in 6 seconds
+      long exp = System.currentTimeMillis() / 1000 + 6;
+      String payload = Base64.getUrlEncoder().withoutPadding().encodeToString(("{\"exp\":" + exp + "}").getBytes());
+      String token = "eyJhbGciOiJub25lIn0." + payload + "." + tokens.size();
+      tokens.add(token);
+      return token;
+    }));
+    assertEquals("8080", client.get(service).toString());
+    assertEquals(1, tokens.size());
+    // Refreshed before expiration, without any request being rejected
+    assertWaitUntil(() -> tokens.size() >= 2);
+  }
+
   @Test
   public void testIncorrectToken() throws Exception {
     Handler<HttpServerRequest> server = req -> {
@@ -243,6 +280,388 @@ public abstract class KubeServiceResolverTestBase extends ServiceResolverTestBas
     kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.UPDATE, pods);
     checkEndpoints(service, "8080", "8081");
   }
+
+  @Test
+  public void testWebSocketResume() throws Exception {
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(2, server);
+    ServiceAddress service = ServiceAddress.of("svc");
+    kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    AtomicInteger lists = new AtomicInteger();
+    proxy.requestHandler(request -> {
+      if (!request.canUpgradeToWebSocket()) {
+        lists.incrementAndGet();
+      }
+      return true;
+    });
+    checkEndpoints(service, "8080");
+    assertWaitUntil(() -> proxy.webSockets().size() == 1);
+    WebSocketBase ws = proxy.webSockets().iterator().next();
+    ws.close();
+    assertWaitUntil(() -> proxy.webSockets().size() == 1 && !proxy.webSockets().contains(ws));
+    checkEndpoints(service, "8080");
+    kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.UPDATE, pods);
+    checkEndpoints(service, "8080", "8081");
+    assertEquals(1, lists.get());
+  }
+
+  @Test
+  public void testPaginatedList() throws Exception {
+    options.setListPageSize(1);
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(3, server);
+    List<ServiceAddress> services = new ArrayList<>();
+    for (int i = 0;i < pods.size();i++) {
+      ServiceAddress service = ServiceAddress.of("svc" + i);
+      kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(i, i + 1));
+      kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(i, i + 1));
+      services.add(service);
+    }
+    List<String> uris = Collections.synchronizedList(new ArrayList<>());
+    proxy.requestHandler(request -> {
+      if (!request.canUpgradeToWebSocket()) {
+        uris.add(request.uri());
+      }
+      return true;
+    });
+    checkEndpoints(services.get(0), "8080");
+    checkEndpoints(services.get(1), "8081");
+    checkEndpoints(services.get(2), "8082");
+    assertFalse(uris.isEmpty());
+    for (String uri : uris) {
+      assertTrue(uri, uri.contains("limit=1"));
+    }
+  }
+
+  @Test
+  public void testSharedWatch() throws Exception {
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(3, server);
+    ServiceAddress service1 = ServiceAddress.of("svc1");
+    ServiceAddress service2 = ServiceAddress.of("svc2");
+    kubernetesMocking.buildAndRegisterBackendPod(service1, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterKubernetesService(service1, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterBackendPod(service2, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(1, 2));
+    kubernetesMocking.buildAndRegisterKubernetesService(service2, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(1, 2));
+    checkEndpoints(service1, "8080");
+    checkEndpoints(service2, "8081");
+    assertWaitUntil(() -> proxy.webSockets().size() == 1);
+    kubernetesMocking.buildAndRegisterKubernetesService(service1, kubernetesMocking.defaultNamespace(), KubeOp.UPDATE, pods.subList(0, 3));
+    checkEndpoints(service1, "8080", "8081", "8082");
+    checkEndpoints(service2, "8081");
+    assertEquals(1, proxy.webSockets().size());
+  }
+
+  @Test
+  public void testListOnce() throws Exception {
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(2, server);
+    ServiceAddress service1 = ServiceAddress.of("svc1");
+    ServiceAddress service2 = ServiceAddress.of("svc2");
+    kubernetesMocking.buildAndRegisterBackendPod(service1, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterKubernetesService(service1, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterBackendPod(service2, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(1, 2));
+    kubernetesMocking.buildAndRegisterKubernetesService(service2, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(1, 2));
+    AtomicInteger lists = new AtomicInteger();
+    proxy.requestHandler(request -> {
+      if (!request.canUpgradeToWebSocket()) {
+        lists.incrementAndGet();
+      }
+      return true;
+    });
+    checkEndpoints(service1, "8080");
+    checkEndpoints(service2, "8081");
+    assertEquals(1, lists.get());
+  }
+
+  @Test
+  public void testBatchResolve() throws Exception {
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(3, server);
+    List<ServiceAddress> services = new ArrayList<>();
+    for (int i = 0;i < 3;i++) {
+      ServiceAddress service = ServiceAddress.of("svc" + i);
+      kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(i, i + 1));
+      kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(i, i + 1));
+      services.add(service);
+    }
+    AtomicInteger lists = new AtomicInteger();
+    proxy.requestHandler(request -> {
+      if (!request.canUpgradeToWebSocket()) {
+        lists.incrementAndGet();
+      }
+      return true;
+    });
+    ServiceResolverClient client = ServiceResolverClient.create(vertx, options);
+    try {
+      List<Endpoint> endpoints = client.resolveEndpoints(services).await(20, TimeUnit.SECONDS);
+      assertEquals(3, endpoints.size());
+      for (int i = 0;i < 3;i++) {
+        assertEquals(8080 + i, endpoints.get(i).servers().get(0).address().port());
+      }
+      assertEquals(1, lists.get());
+      assertWaitUntil(() -> proxy.webSockets().size() == 1);
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testServiceWatchMode() throws Exception {
+    options.setWatchMode(KubeWatchMode.SERVICE);
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(3, server);
+    ServiceAddress service1 = ServiceAddress.of("svc1");
+    ServiceAddress service2 = ServiceAddress.of("svc2");
+    kubernetesMocking.buildAndRegisterBackendPod(service1, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterKubernetesService(service1, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterBackendPod(service2, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(1, 2));
+    kubernetesMocking.buildAndRegisterKubernetesService(service2, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(1, 2));
+    checkEndpoints(service1, "8080");
+    checkEndpoints(service2, "8081");
+    assertWaitUntil(() -> proxy.webSockets().size() == 2);
+    kubernetesMocking.buildAndRegisterKubernetesService(service2, kubernetesMocking.defaultNamespace(), KubeOp.UPDATE, pods.subList(1, 3));
+    checkEndpoints(service1, "8080");
+    checkEndpoints(service2, "8081", "8082");
+  }
+
+  @Test
+  public void testNamespaces() throws Exception {
+    String namespace = kubernetesMocking.createNamespace();
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(2, server);
+    ServiceAddress service1 = ServiceAddress.of("svc");
+    ServiceAddress service2 = KubernetesServiceAddressBuilder.of("svc").withNamespace(namespace).build();
+    kubernetesMocking.buildAndRegisterBackendPod(service1, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterKubernetesService(service1, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterBackendPod(service2, namespace, KubeOp.CREATE, pods.subList(1, 2));
+    kubernetesMocking.buildAndRegisterKubernetesService(service2, namespace, KubeOp.CREATE, pods.subList(1, 2));
+    checkEndpoints(service1, "8080");
+    checkEndpoints(service2, "8081");
+    // One watch per namespace
+    assertWaitUntil(() -> proxy.webSockets().size() == 2);
+  }
+
+  @Test
+  public void testClusterWatchMode() throws Exception {
+    options.setWatchMode(KubeWatchMode.CLUSTER);
+    String namespace = kubernetesMocking.createNamespace();
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(3, server);
+    ServiceAddress service1 = ServiceAddress.of("svc");
+    ServiceAddress service2 = KubernetesServiceAddressBuilder.of("svc").withNamespace(namespace).build();
+    kubernetesMocking.buildAndRegisterBackendPod(service1, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterKubernetesService(service1, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterBackendPod(service2, namespace, KubeOp.CREATE, pods.subList(1, 3));
+    kubernetesMocking.buildAndRegisterKubernetesService(service2, namespace, KubeOp.CREATE, pods.subList(1, 2));
+    checkEndpoints(service1, "8080");
+    checkEndpoints(service2, "8081");
+    assertWaitUntil(() -> proxy.webSockets().size() == 1);
+    kubernetesMocking.buildAndRegisterKubernetesService(service2, namespace, KubeOp.UPDATE, pods.subList(1, 3));
+    checkEndpoints(service1, "8080");
+    checkEndpoints(service2, "8081", "8082");
+    assertEquals(1, proxy.webSockets().size());
+  }
+
+  @Test
+  public void testEndpointSlices() throws Exception {
+    options.setEndpointsApi(KubeEndpointsApi.ENDPOINT_SLICES);
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(3, server);
+    ServiceAddress service = ServiceAddress.of("svc");
+    kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-1", kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-2", kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(1, 2));
+    checkEndpoints(service, "8080", "8081");
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-3", kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(2, 3));
+    checkEndpoints(service, "8080", "8081", "8082");
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-1", kubernetesMocking.defaultNamespace(), KubeOp.DELETE, pods.subList(0, 1));
+    checkEndpoints(service, "8081", "8082");
+  }
+
+  @Test
+  public void testSlowStart() throws Exception {
+    options.setSlowStartWindow(60_000);
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(2, server);
+    ServiceAddress service = ServiceAddress.of("svc");
+    kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    ServiceResolverClient client = ServiceResolverClient.create(vertx, KubeResolver.SLOW_START_LOAD_BALANCER, options);
+    try {
+      Endpoint endpoint = client.resolveEndpoint(service).await(20, TimeUnit.SECONDS);
+      // Servers listed when the service is resolved are warm
+      assertEquals(1D, ((KubeServer) endpoint.servers().get(0).unwrap()).weight(), 0D);
+      kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.UPDATE, pods);
+      assertWaitUntil(() -> client.resolveEndpoint(service).await(20, TimeUnit.SECONDS).servers().size() == 2);
+      Map<Integer, Double> weights = new HashMap<>();
+      for (ServerEndpoint s : client.resolveEndpoint(service).await(20, TimeUnit.SECONDS).servers()) {
+        weights.put(s.address().port(), ((KubeServer) s.unwrap()).weight());
+      }
+      assertEquals(1D, weights.get(8080), 0D);
+      assertTrue(weights.get(8081) < 0.5D);
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testTerminatingFallback() throws Exception {
+    options.setEndpointsApi(KubeEndpointsApi.ENDPOINT_SLICES).setTerminatingFallback(true);
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(2, server);
+    ServiceAddress service = ServiceAddress.of("svc");
+    kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-1", kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-2", kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(1, 2), true);
+    // Terminating servers are not used while a server is ready
+    checkEndpoints(service, "8080");
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-1", kubernetesMocking.defaultNamespace(), KubeOp.UPDATE, pods.subList(0, 1), true);
+    checkEndpoints(service, "8080", "8081");
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-1", kubernetesMocking.defaultNamespace(), KubeOp.UPDATE, pods.subList(0, 1));
+    checkEndpoints(service, "8080");
+  }
+
+  @Test
+  public void testZonePreference() throws Exception {
+    options
+      .setEndpointsApi(KubeEndpointsApi.ENDPOINT_SLICES)
+      .setTopologyMode(KubeTopologyMode.PREFER_ZONE)
+      .setZone("zone-a");
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(3, server);
+    ServiceAddress service = ServiceAddress.of("svc");
+    kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-1", kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1), false, "zone-a");
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-2", kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(1, 3), false, "zone-b");
+    checkEndpoints(service, "8080");
+    // No server left in the zone
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-1", kubernetesMocking.defaultNamespace(), KubeOp.DELETE, pods.subList(0, 1), false, "zone-a");
+    checkEndpoints(service, "8081", "8082");
+  }
+
+  @Test
+  public void testMinZoneServers() throws Exception {
+    options
+      .setEndpointsApi(KubeEndpointsApi.ENDPOINT_SLICES)
+      .setTopologyMode(KubeTopologyMode.PREFER_ZONE)
+      .setZone("zone-a")
+      .setMinZoneServers(2);
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(3, server);
+    ServiceAddress service = ServiceAddress.of("svc");
+    kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-1", kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1), false, "zone-a");
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-2", kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(1, 2), false, "zone-b");
+    checkEndpoints(service, "8080", "8081");
+    kubernetesMocking.buildAndRegisterEndpointSlice(service, "svc-3", kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(2, 3), false, "zone-a");
+    checkEndpoints(service, "8080", "8082");
+  }
+
+  @Test
+  public void testMetrics() throws Exception {
+    AtomicLong listBytes = new AtomicLong();
+    AtomicInteger events = new AtomicInteger();
+    AtomicInteger resolutions = new AtomicInteger();
+    Map<Address, Integer> endpoints = new ConcurrentHashMap<>();
+    options.setMetrics(new ServiceResolverMetrics() {
+      @Override
+      public void resolveCompleted(Address address, long durationNanos, boolean succeeded) {
+        if (succeeded) {
+          resolutions.incrementAndGet();
+        }
+      }
+      @Override
+      public void endpointsUpdated(Address address, int count) {
+        endpoints.put(address, count);
+      }
+      @Override
+      public void listBytesRead(long bytes) {
+        listBytes.addAndGet(bytes);
+      }
+      @Override
+      public void watchEventProcessed(long bytes, long durationNanos) {
+        events.incrementAndGet();
+      }
+    });
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(2, server);
+    ServiceAddress service = ServiceAddress.of("svc");
+    kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    checkEndpoints(service, "8080");
+    assertEquals(1, resolutions.get());
+    assertTrue(listBytes.get() > 0);
+    assertEquals(1, (int) endpoints.get(service));
+    kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.UPDATE, pods);
+    checkEndpoints(service, "8080", "8081");
+    assertTrue(events.get() > 0);
+    assertEquals(2, (int) endpoints.get(service));
+  }
+
+  @Test
+  public void testSnapshot() throws Exception {
+    File snapshot = new File(Files.createTempDirectory("vertx").toFile(), "endpoints.snapshot");
+    options.setSnapshotPath(snapshot.getAbsolutePath()).setSnapshotInterval(50);
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(2, server);
+    ServiceAddress service = ServiceAddress.of("svc");
+    kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    checkEndpoints(service, "8080");
+    assertWaitUntil(snapshot::exists);
+    client.close();
+    client = null;
+    // The API server does not answer, the service is served from the snapshot
+    proxy.requestHandler(request -> false);
+    assertEquals("8080", get(service).toString());
+  }
+
+  @Test
+  public void testProtobufFallback() throws Exception {
+    options.setProtobuf(true);
+    Handler<HttpServerRequest> server = req -> {
+      req.response().end("" + req.localAddress().port());
+    };
+    List<SocketAddress> pods = startPods(2, server);
+    ServiceAddress service = ServiceAddress.of("svc");
+    kubernetesMocking.buildAndRegisterBackendPod(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods);
+    kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.CREATE, pods.subList(0, 1));
+    checkEndpoints(service, "8080");
+    kubernetesMocking.buildAndRegisterKubernetesService(service, kubernetesMocking.defaultNamespace(), KubeOp.UPDATE, pods);
+    checkEndpoints(service, "8080", "8081");
+  }
   /*
   @Test
   public void testDispose(TestContext should) throws Exception {
@@ -2,6 +2,9 @@ package io.vertx.tests.kube;
 
 import com.dajudge.kindcontainer.KubernetesContainer;
 import io.fabric8.kubernetes.api.model.*;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointBuilder;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointSlice;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointSliceBuilder;
 import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientBuilder;
@@ -173,6 +176,53 @@ public class KubernetesMocking {
     return endpointsBuilder.build();
   }
 
+  EndpointSlice buildAndRegisterEndpointSlice(ServiceAddress service, String sliceName, String namespace, KubeOp op, List<SocketAddress> ipAddresses) {
+    return buildAndRegisterEndpointSlice(service, sliceName, namespace, op, ipAddresses, false);
+  }
+
+  EndpointSlice buildAndRegisterEndpointSlice(ServiceAddress service, String sliceName, String namespace, KubeOp op, List<SocketAddress> ipAddresses, boolean terminating) {
+    return buildAndRegisterEndpointSlice(service, sliceName, namespace, op, ipAddresses, terminating, null);
+  }
+
+  EndpointSlice buildAndRegisterEndpointSlice(ServiceAddress service, String sliceName, String namespace, KubeOp op, List<SocketAddress> ipAddresses, boolean terminating, String zone) {
+    EndpointSliceBuilder sliceBuilder = new EndpointSliceBuilder()
+      .withNewMetadata()
+      .withName(sliceName)
+      .addToLabels("kubernetes.io/service-name", service.name())
+      .endMetadata()
+      .withAddressType("IPv4");
+    for (SocketAddress ipAddress : ipAddresses) {
+      sliceBuilder.addToEndpoints(new EndpointBuilder()
+        .withAddresses(ipAddress.host())
+        .withNewConditions().withReady(!terminating).withServing(true).withTerminating(terminating).endConditions()
+        .withZone(zone)
+        .build());
+    }
+    // Ports are shared by the endpoints of a slice
+    ipAddresses.stream().map(SocketAddress::port).distinct().forEach(port -> {
+      sliceBuilder.addToPorts(new io.fabric8.kubernetes.api.model.discovery.v1.EndpointPortBuilder().withPort(port).withProtocol("TCP").build());
+    });
+    EndpointSlice slice = sliceBuilder.build();
+    Resource<EndpointSlice> resource;
+    if (namespace != null) {
+      resource = client.discovery().v1().endpointSlices().inNamespace(namespace).resource(slice);
+    } else {
+      resource = client.discovery().v1().endpointSlices().resource(slice);
+    }
+    switch (op) {
+      case CREATE:
+        resource.create();
+        break;
+      case UPDATE:
+        resource.update();
+        break;
+      case DELETE:
+        resource.delete();
+        break;
+    }
+    return slice;
+  }
+
   List<Pod> buildAndRegisterBackendPod(ServiceAddress svc, String namespace, KubeOp op, List<SocketAddress> ips) {
     return buildAndRegisterBackendPod(svc.name(), namespace, op, ips);
   }
@@ -225,6 +275,12 @@ public class KubernetesMocking {
     return ret;
   }
 
+  String createNamespace() {
+    String name = "ns-" + UUID.randomUUID().toString().substring(0, 8);
+    client.namespaces().resource(new NamespaceBuilder().withNewMetadata().withName(name).endMetadata().build()).create();
+    return name;
+  }
+
   String ipAsSuffix(SocketAddress ipAddress) {
     return ipAddress.host().replace(".", "") + "-" + ipAddress.port();
   }
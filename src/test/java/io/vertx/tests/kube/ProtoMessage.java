@@ -0,0 +1,72 @@
+package io.vertx.tests.kube;
+
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes the protobuf messages served by the test API server, the field numbers are those of the Kubernetes
+ * {@code generated.proto} files.
+ */
+public class ProtoMessage {
+
+  private static final byte[] MAGIC = { 'k', '8', 's', 0 };
+
+  private final Buffer buffer = Buffer.buffer();
+
+  public ProtoMessage string(int field, String value) {
+    return bytes(field, Buffer.buffer(value.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  public ProtoMessage varint(int field, long value) {
+    tag(field, 0);
+    writeVarint(value);
+    return this;
+  }
+
+  public ProtoMessage bool(int field, boolean value) {
+    return varint(field, value ? 1 : 0);
+  }
+
+  public ProtoMessage message(int field, ProtoMessage value) {
+    return bytes(field, value.buffer);
+  }
+
+  public ProtoMessage bytes(int field, Buffer value) {
+    tag(field, 2);
+    writeVarint(value.length());
+    buffer.appendBuffer(value);
+    return this;
+  }
+
+  public Buffer toBuffer() {
+    return buffer.copy();
+  }
+
+  /**
+   * @return the {@code object} in a {@code runtime.Unknown} envelope prefixed by the Kubernetes magic number
+   */
+  public static Buffer envelope(String apiVersion, String kind, ProtoMessage object) {
+    ProtoMessage typeMeta = new ProtoMessage()
+      .string(1, apiVersion)
+      .string(2, kind);
+    ProtoMessage unknown = new ProtoMessage()
+      .message(1, typeMeta)
+      .message(2, object)
+      .string(3, "")
+      .string(4, "application/vnd.kubernetes.protobuf");
+    return Buffer.buffer(MAGIC).appendBuffer(unknown.buffer);
+  }
+
+  private void tag(int field, int wireType) {
+    writeVarint(((long) field << 3) | wireType);
+  }
+
+  private void writeVarint(long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.appendByte((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.appendByte((byte) value);
+  }
+}
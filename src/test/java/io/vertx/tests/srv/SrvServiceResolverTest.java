@@ -1,18 +1,35 @@
 package io.vertx.tests.srv;
 
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.dns.DefaultDnsRawRecord;
 import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.vertx.core.Future;
+import io.vertx.core.dns.SrvRecord;
+import io.vertx.core.net.Address;
 import io.vertx.core.net.AddressResolver;
 import io.vertx.core.net.SocketAddress;
+import io.vertx.core.net.endpoint.Endpoint;
+import io.vertx.core.spi.endpoint.EndpointBuilder;
+import io.vertx.core.spi.endpoint.EndpointResolver;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.serviceresolver.ServiceAddress;
 import io.vertx.serviceresolver.ServiceResolverClient;
+import io.vertx.serviceresolver.ServiceResolverMetrics;
 import io.vertx.serviceresolver.srv.SrvResolver;
 import io.vertx.serviceresolver.srv.SrvResolverOptions;
 import io.vertx.test.fakedns.MockDnsServer;
 import io.vertx.tests.ServiceResolverTestBase;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SrvServiceResolverTest extends ServiceResolverTestBase {
 
@@ -67,6 +84,24 @@ public class SrvServiceResolverTest extends ServiceResolverTestBase {
     testExpiration(should, 0);
   }
 
+  @Test
+  public void testExpirationMinTTLUnit(TestContext should) throws Exception {
+    options = new SrvResolverOptions(options).setMinTTL(1000).setMinTTLUnit(TimeUnit.MILLISECONDS);
+    testExpiration(should, 0);
+  }
+
+  @Test
+  public void testExpirationMaxTTL(TestContext should) throws Exception {
+    options = new SrvResolverOptions(options).setMaxTTL(1);
+    testExpiration(should, 100);
+  }
+
+  @Test
+  public void testExpirationTTLJitter(TestContext should) throws Exception {
+    options = new SrvResolverOptions(options).setTtlJitter(0.5);
+    testExpiration(should, 1);
+  }
+
   private void testExpiration(TestContext should, int ttl) throws Exception {
     startPods(4, req -> {
       req.response().end("" + req.localAddress().port());
@@ -130,6 +165,369 @@ public class SrvServiceResolverTest extends ServiceResolverTestBase {
     should.assertEquals("8081", get(ServiceAddress.of("_http._tcp.example.com.")).toString());
   }
 
+  @Test
+  public void testStaleWhileRevalidate(TestContext should) throws Exception {
+    options = new SrvResolverOptions(options).setStaleTTL(10);
+    startPods(2, req -> {
+      req.response().end("" + req.localAddress().port());
+    });
+    List<Integer> ports = Collections.synchronizedList(new ArrayList<>());
+    dnsServer.store(question -> {
+      List<DnsRecord> list = new ArrayList<>();
+      if ("_http._tcp.example.com.".equals(question.name())) {
+        for (Integer port : ports) {
+          DnsRecord record = MockDnsServer.srv(
+            "_http._tcp.example.com.", 0, 1, 1, port, "localhost");
+          list.add(record);
+        }
+      }
+      return list;
+    });
+    ports.add(8080);
+    should.assertEquals("8080", get(ServiceAddress.of("_http._tcp.example.com.")).toString());
+    ports.clear();
+    ports.add(8081);
+    // The stale response is served while it is revalidated
+    should.assertEquals("8080", get(ServiceAddress.of("_http._tcp.example.com.")).toString());
+    assertWaitUntil(() -> get(ServiceAddress.of("_http._tcp.example.com.")).toString().equals("8081"));
+  }
+
+  @Test
+  public void testStaleIfError(TestContext should) throws Exception {
+    options = new SrvResolverOptions(options).setStaleTTL(10);
+    startPods(1, req -> {
+      req.response().end("" + req.localAddress().port());
+    });
+    AtomicBoolean failing = new AtomicBoolean();
+    AtomicInteger failures = new AtomicInteger();
+    dnsServer.store(question -> {
+      if (failing.get()) {
+        failures.incrementAndGet();
+        throw new RuntimeException("Server failure");
+      }
+      List<DnsRecord> list = new ArrayList<>();
+      if ("_http._tcp.example.com.".equals(question.name())) {
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 1, 1, 1, 8080, "localhost"));
+      }
+      return list;
+    });
+    should.assertEquals("8080", get(ServiceAddress.of("_http._tcp.example.com.")).toString());
+    failing.set(true);
+    // The refresh at the TTL expiration fails and is retried
+    assertWaitUntil(() -> failures.get() >= 2);
+    // The DNS server fails, the expired response is still served
+    should.assertEquals("8080", get(ServiceAddress.of("_http._tcp.example.com.")).toString());
+  }
+
+  @Test
+  public void testResolveTargets(TestContext should) throws Exception {
+    options = new SrvResolverOptions(options).setResolveTargets(true);
+    startPods(2, req -> {
+      req.response().end("" + req.localAddress().port());
+    });
+    AtomicInteger lookups = new AtomicInteger();
+    dnsServer.store(question -> {
+      List<DnsRecord> list = new ArrayList<>();
+      if ("_http._tcp.example.com.".equals(question.name())) {
+        for (int i = 0;i < 2;i++) {
+          list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 1, 1, 8080 + i, "backend.example.com."));
+        }
+      } else if ("backend.example.com.".equals(question.name()) && question.type() == DnsRecordType.A) {
+        lookups.incrementAndGet();
+        list.add(new DefaultDnsRawRecord("backend.example.com.", DnsRecordType.A, 100, Unpooled.wrappedBuffer(new byte[] { 127, 0, 0, 1 })));
+      }
+      return list;
+    });
+    // The target host name is only known by the DNS server
+    Set<String> set = new HashSet<>(Arrays.asList("8080", "8081"));
+    should.assertTrue(set.remove(get(ServiceAddress.of("_http._tcp.example.com.")).toString()));
+    should.assertTrue(set.remove(get(ServiceAddress.of("_http._tcp.example.com.")).toString()));
+    should.assertEquals(1, lookups.get());
+  }
+
+  @Test
+  public void testResolveTargetsFailure(TestContext should) throws Exception {
+    options = new SrvResolverOptions(options).setResolveTargets(true);
+    startPods(1, req -> {
+      req.response().end("" + req.localAddress().port());
+    });
+    AtomicBoolean failing = new AtomicBoolean();
+    AtomicInteger lookups = new AtomicInteger();
+    dnsServer.store(question -> {
+      List<DnsRecord> list = new ArrayList<>();
+      if ("_http._tcp.example.com.".equals(question.name())) {
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 1, 1, 1, 8080, "backend.example.com."));
+      } else if ("backend.example.com.".equals(question.name()) && question.type() == DnsRecordType.A) {
+        lookups.incrementAndGet();
+        if (!failing.get()) {
+          list.add(new DefaultDnsRawRecord("backend.example.com.", DnsRecordType.A, 1, Unpooled.wrappedBuffer(new byte[] { 127, 0, 0, 1 })));
+        }
+      }
+      return list;
+    });
+    should.assertEquals("8080", get(ServiceAddress.of("_http._tcp.example.com.")).toString());
+    failing.set(true);
+    // The target expired with the records and cannot be resolved again, its last address keeps being used
+    assertWaitUntil(() -> lookups.get() >= 2);
+    should.assertEquals("8080", get(ServiceAddress.of("_http._tcp.example.com.")).toString());
+  }
+
+  @Test
+  public void testCoalesceLookups(TestContext should) throws Exception {
+    AtomicInteger queries = new AtomicInteger();
+    dnsServer.store(question -> {
+      List<DnsRecord> list = new ArrayList<>();
+      if ("_http._tcp.example.com.".equals(question.name())) {
+        queries.incrementAndGet();
+        for (int i = 0;i < 2;i++) {
+          list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 1, 1, 8080 + i, "localhost"));
+        }
+      }
+      return list;
+    });
+    EndpointResolver<ServiceAddress, SrvRecord, Object, List<SrvRecord>> resolver = (EndpointResolver) SrvResolver.create(options).endpointResolver(vertx);
+    EndpointBuilder<List<SrvRecord>, SrvRecord> builder = listBuilder(Collections.emptyList());
+    ServiceAddress address = ServiceAddress.of("_http._tcp.example.com.");
+    Future<Object> f1 = resolver.resolve(address, builder);
+    Future<Object> f2 = resolver.resolve(address, builder);
+    Future.all(f1, f2).toCompletionStage().toCompletableFuture().get(20, TimeUnit.SECONDS);
+    should.assertEquals(1, queries.get());
+    should.assertEquals(2, resolver.endpoint(f1.result()).size());
+    resolver.close();
+  }
+
+  private static EndpointBuilder<List<SrvRecord>, SrvRecord> listBuilder(List<SrvRecord> records) {
+    return new EndpointBuilder<>() {
+      @Override
+      public EndpointBuilder<List<SrvRecord>, SrvRecord> addServer(SrvRecord server, String key) {
+        List<SrvRecord> copy = new ArrayList<>(records);
+        copy.add(server);
+        return listBuilder(copy);
+      }
+      @Override
+      public List<SrvRecord> build() {
+        return records;
+      }
+    };
+  }
+
+  @Test
+  public void testIdleTimeout(TestContext should) throws Exception {
+    AtomicInteger queries = new AtomicInteger();
+    dnsServer.store(question -> {
+      List<DnsRecord> list = new ArrayList<>();
+      if ("_http._tcp.example.com.".equals(question.name())) {
+        queries.incrementAndGet();
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 1, 1, 8080, "localhost"));
+      }
+      return list;
+    });
+    options.setIdleTimeout(500).setIdleTimeoutUnit(TimeUnit.MILLISECONDS).setSweepInterval(50);
+    ServiceResolverClient resolver = ServiceResolverClient.create(vertx, options);
+    ServiceAddress address = ServiceAddress.of("_http._tcp.example.com.");
+    resolver.resolveEndpoint(address).await(20, TimeUnit.SECONDS);
+    // Accessed services are kept
+    for (int i = 0;i < 10;i++) {
+      Thread.sleep(100);
+      resolver.resolveEndpoint(address).await(20, TimeUnit.SECONDS);
+    }
+    should.assertEquals(1, queries.get());
+    // Idle services are evicted
+    Thread.sleep(1000);
+    resolver.resolveEndpoint(address).await(20, TimeUnit.SECONDS);
+    should.assertEquals(2, queries.get());
+    resolver.close();
+  }
+
+  @Test
+  public void testMaxEntries(TestContext should) throws Exception {
+    Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+    dnsServer.store(question -> {
+      queries.computeIfAbsent(question.name(), n -> new AtomicInteger()).incrementAndGet();
+      return Collections.singletonList(MockDnsServer.srv(question.name(), 100, 1, 1, 8080, "localhost"));
+    });
+    options.setMaxEntries(2).setIdleTimeout(1).setIdleTimeoutUnit(TimeUnit.HOURS).setSweepInterval(50);
+    ServiceResolverClient resolver = ServiceResolverClient.create(vertx, options);
+    ServiceAddress popular = ServiceAddress.of("_popular._tcp.example.com.");
+    for (int i = 0;i < 5;i++) {
+      resolver.resolveEndpoint(popular).await(20, TimeUnit.SECONDS);
+    }
+    // One-off services do not evict the popular service
+    for (int i = 0;i < 5;i++) {
+      resolver.resolveEndpoint(ServiceAddress.of("_service-" + i + "._tcp.example.com.")).await(20, TimeUnit.SECONDS);
+    }
+    resolver.resolveEndpoint(popular).await(20, TimeUnit.SECONDS);
+    should.assertEquals(1, queries.get("_popular._tcp.example.com.").get());
+    // Evicted services are resolved again
+    resolver.resolveEndpoint(ServiceAddress.of("_service-0._tcp.example.com.")).await(20, TimeUnit.SECONDS);
+    should.assertEquals(2, queries.get("_service-0._tcp.example.com.").get());
+    resolver.close();
+  }
+
+  @Test
+  public void testMetrics(TestContext should) throws Exception {
+    dnsServer.store(question -> {
+      List<DnsRecord> list = new ArrayList<>();
+      if ("_http._tcp.example.com.".equals(question.name())) {
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 1, 1, 8080, "localhost"));
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 50, 1, 1, 8081, "localhost"));
+      }
+      return list;
+    });
+    List<String> events = Collections.synchronizedList(new ArrayList<>());
+    options.setMetrics(new ServiceResolverMetrics() {
+      @Override
+      public void resolveCompleted(Address address, long durationNanos, boolean succeeded) {
+        events.add("resolve-" + succeeded);
+      }
+      @Override
+      public void cacheHit(Address address) {
+        events.add("hit");
+      }
+      @Override
+      public void cacheMiss(Address address) {
+        events.add("miss");
+      }
+      @Override
+      public void endpointsUpdated(Address address, int count) {
+        events.add("endpoints-" + count);
+      }
+      @Override
+      public void srvQueryCompleted(String name, long durationNanos, boolean succeeded) {
+        events.add("query-" + name + "-" + succeeded);
+      }
+      @Override
+      public void srvRecordsReceived(String name, int count, long ttl) {
+        events.add("records-" + count + "-" + ttl);
+      }
+    });
+    ServiceResolverClient resolver = ServiceResolverClient.create(vertx, options);
+    ServiceAddress address = ServiceAddress.of("_http._tcp.example.com.");
+    resolver.resolveEndpoint(address).await(20, TimeUnit.SECONDS);
+    resolver.resolveEndpoint(address).await(20, TimeUnit.SECONDS);
+    should.assertEquals(Arrays.asList("miss", "query-_http._tcp.example.com.-true", "records-2-50", "endpoints-2", "resolve-true", "hit"), events);
+    resolver.close();
+  }
+
+  @Test
+  public void testBatchResolve(TestContext should) throws Exception {
+    dnsServer.store(question -> {
+      String name = question.name();
+      int port = 8080 + Integer.parseInt(name.substring(8, 9));
+      return Collections.singletonList(MockDnsServer.srv(name, 100, 1, 1, port, "localhost"));
+    });
+    Set<ServiceAddress> addresses = new LinkedHashSet<>();
+    for (int i = 4;i >= 0;i--) {
+      addresses.add(ServiceAddress.of("_service" + i + "._tcp.example.com."));
+    }
+    ServiceResolverClient resolver = ServiceResolverClient.create(vertx, options);
+    List<Endpoint> endpoints = resolver.resolveEndpoints(addresses).await(20, TimeUnit.SECONDS);
+    should.assertEquals(5, endpoints.size());
+    // In the iteration order of the addresses
+    for (int i = 0;i < 5;i++) {
+      should.assertEquals(8084 - i, endpoints.get(i).servers().get(0).address().port());
+    }
+    resolver.close();
+  }
+
+  @Test
+  public void testWarmup(TestContext should) throws Exception {
+    Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+    dnsServer.store(question -> {
+      queries.computeIfAbsent(question.name(), n -> new AtomicInteger()).incrementAndGet();
+      return Collections.singletonList(MockDnsServer.srv(question.name(), 100, 1, 1, 8080, "localhost"));
+    });
+    ServiceAddress warm = ServiceAddress.of("_warm._tcp.example.com.");
+    ServiceAddress cold = ServiceAddress.of("_cold._tcp.example.com.");
+    options
+      .addWarmupAddress(warm)
+      .setIdleTimeout(200)
+      .setIdleTimeoutUnit(TimeUnit.MILLISECONDS)
+      .setSweepInterval(50);
+    ServiceResolverClient resolver = ServiceResolverClient.create(vertx, options);
+    resolver.ready().await(20, TimeUnit.SECONDS);
+    should.assertEquals(1, queries.get("_warm._tcp.example.com.").get());
+    resolver.resolveEndpoint(cold).await(20, TimeUnit.SECONDS);
+    Thread.sleep(1000);
+    // Warmup services never expire
+    resolver.resolveEndpoint(warm).await(20, TimeUnit.SECONDS);
+    resolver.resolveEndpoint(cold).await(20, TimeUnit.SECONDS);
+    should.assertEquals(1, queries.get("_warm._tcp.example.com.").get());
+    should.assertEquals(2, queries.get("_cold._tcp.example.com.").get());
+    resolver.close();
+  }
+
+  @Test
+  public void testSnapshot(TestContext should) throws Exception {
+    File snapshot = new File(Files.createTempDirectory("vertx").toFile(), "endpoints.snapshot");
+    AtomicInteger port = new AtomicInteger(8080);
+    CountDownLatch latch = new CountDownLatch(1);
+    AtomicBoolean blocking = new AtomicBoolean();
+    dnsServer.store(question -> {
+      if (blocking.get()) {
+        try {
+          latch.await(20, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+      return Collections.singletonList(MockDnsServer.srv(question.name(), 100, 1, 1, port.get(), "localhost"));
+    });
+    // The snapshot is not written before the client is closed
+    options.setSnapshotPath(snapshot.getAbsolutePath()).setSnapshotInterval(3_600_000);
+    ServiceAddress address = ServiceAddress.of("_http._tcp.example.com.");
+    ServiceResolverClient resolver = ServiceResolverClient.create(vertx, options);
+    resolver.resolveEndpoint(address).await(20, TimeUnit.SECONDS);
+    should.assertFalse(snapshot.exists());
+    resolver.close();
+    // Closing the client flushes the snapshot
+    assertWaitUntil(snapshot::exists);
+    // The DNS server is slow to answer, the service is served from the snapshot meanwhile
+    blocking.set(true);
+    port.set(8081);
+    ServiceResolverClient restarted = ServiceResolverClient.create(vertx, options);
+    Endpoint endpoint = restarted.resolveEndpoint(address).await(20, TimeUnit.SECONDS);
+    should.assertEquals(8080, endpoint.servers().get(0).address().port());
+    latch.countDown();
+    assertWaitUntil(() -> restarted.resolveEndpoint(address).await(20, TimeUnit.SECONDS).servers().get(0).address().port() == 8081);
+    restarted.close();
+  }
+
+  @Test
+  public void testSnapshotOutage(TestContext should) throws Exception {
+    File snapshot = new File(Files.createTempDirectory("vertx").toFile(), "endpoints.snapshot");
+    AtomicInteger port = new AtomicInteger(8080);
+    AtomicBoolean failing = new AtomicBoolean();
+    AtomicInteger failures = new AtomicInteger();
+    dnsServer.store(question -> {
+      if (failing.get()) {
+        failures.incrementAndGet();
+        throw new RuntimeException("Server failure");
+      }
+      return Collections.singletonList(MockDnsServer.srv(question.name(), 100, 1, 1, port.get(), "localhost"));
+    });
+    options.setSnapshotPath(snapshot.getAbsolutePath()).setSnapshotInterval(50);
+    ServiceAddress address = ServiceAddress.of("_http._tcp.example.com.");
+    ServiceResolverClient resolver = ServiceResolverClient.create(vertx, options);
+    resolver.resolveEndpoint(address).await(20, TimeUnit.SECONDS);
+    assertWaitUntil(snapshot::exists);
+    resolver.close();
+    // The DNS server fails after the restart, the service keeps being served from the snapshot
+    failing.set(true);
+    port.set(8081);
+    ServiceResolverClient restarted = ServiceResolverClient.create(vertx, options);
+    should.assertEquals(8080, restarted.resolveEndpoint(address).await(20, TimeUnit.SECONDS).servers().get(0).address().port());
+    // The failed lookup is retried with a backoff
+    assertWaitUntil(() -> failures.get() >= 2);
+    for (int i = 0;i < 10;i++) {
+      should.assertEquals(8080, restarted.resolveEndpoint(address).await(20, TimeUnit.SECONDS).servers().get(0).address().port());
+    }
+    should.assertTrue(failures.get() < 10);
+    failing.set(false);
+    assertWaitUntil(() -> restarted.resolveEndpoint(address).await(20, TimeUnit.SECONDS).servers().get(0).address().port() == 8081);
+    restarted.close();
+  }
+
   @Test
   public void testServiceResolver(TestContext should) throws Exception {
     dnsServer.store(question -> {
@@ -151,4 +549,49 @@ public class SrvServiceResolverTest extends ServiceResolverTestBase {
       should.assertEquals(8081, res.servers().get(1).address().port());
     }));
   }
+
+  @Test
+  public void testLoadBalancerWeights(TestContext should) throws Exception {
+    dnsServer.store(question -> {
+      List<DnsRecord> list = new ArrayList<>();
+      if ("_http._tcp.example.com.".equals(question.name())) {
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 1, 3, 8080, "localhost"));
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 1, 1, 8081, "localhost"));
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 1, 0, 8082, "localhost"));
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 2, 10, 8083, "localhost"));
+      }
+      return list;
+    });
+    ServiceResolverClient resolver = ServiceResolverClient.create(vertx, SrvResolver.LOAD_BALANCER, options);
+    Endpoint endpoint = resolver.resolveEndpoint(ServiceAddress.of("_http._tcp.example.com.")).await(20, TimeUnit.SECONDS);
+    Map<Integer, Integer> counts = new HashMap<>();
+    for (int i = 0;i < 4000;i++) {
+      counts.merge(endpoint.selectServer().address().port(), 1, Integer::sum);
+    }
+    should.assertEquals(new HashSet<>(Arrays.asList(8080, 8081)), counts.keySet());
+    int count = counts.get(8080);
+    should.assertTrue(count > 2700 && count < 3300, "Unexpected selection count " + count);
+  }
+
+  @Test
+  public void testLoadBalancerFailover(TestContext should) throws Exception {
+    dnsServer.store(question -> {
+      List<DnsRecord> list = new ArrayList<>();
+      if ("_http._tcp.example.com.".equals(question.name())) {
+        // Drained tier
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 1, 0, 8080, "localhost"));
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 2, 1, 8081, "localhost"));
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 2, 1, 8082, "localhost"));
+        list.add(MockDnsServer.srv("_http._tcp.example.com.", 100, 3, 1, 8083, "localhost"));
+      }
+      return list;
+    });
+    ServiceResolverClient resolver = ServiceResolverClient.create(vertx, SrvResolver.LOAD_BALANCER, options);
+    Endpoint endpoint = resolver.resolveEndpoint(ServiceAddress.of("_http._tcp.example.com.")).await(20, TimeUnit.SECONDS);
+    Set<Integer> selected = new HashSet<>();
+    for (int i = 0;i < 1000;i++) {
+      selected.add(endpoint.selectServer().address().port());
+    }
+    should.assertEquals(new HashSet<>(Arrays.asList(8081, 8082)), selected);
+  }
 }